@@ -0,0 +1,52 @@
+package hello.noddy.querydsl.benchmark;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 조건에 맞는 회원이 있는지 확인하는 방법별 비교. 맞는 행이 많을수록 count 와 목록 조회가 느려진다.
+ * 큰 테이블은 -p members=1000000 으로 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberExistsBenchmark {
+
+  private MemberSearchCondition condition;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    condition = new MemberSearchCondition();
+    condition.setAgeGoe(10); // 90% 가 맞는다.
+  }
+
+  @Benchmark
+  public boolean existsBy(RepositoryState state) {
+    return state.memberRepository.existsBy(condition);
+  }
+
+  @Benchmark
+  public boolean fetchCount(RepositoryState state) {
+    Long count = state.queryFactory
+        .select(member.count())
+        .from(member)
+        .where(member.age.goe(condition.getAgeGoe()))
+        .fetchOne();
+    return count > 0;
+  }
+
+  @Benchmark
+  public boolean searchIsEmpty(RepositoryState state) {
+    return !state.memberJpaRepository.search(condition).isEmpty();
+  }
+}
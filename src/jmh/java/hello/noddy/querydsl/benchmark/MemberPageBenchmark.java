@@ -0,0 +1,66 @@
+package hello.noddy.querydsl.benchmark;
+
+import hello.noddy.querydsl.dto.MemberCursor;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+/**
+ * offset 페이징(count 포함)과 keyset 페이징을 같은 깊이의 페이지에서 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberPageBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  @Param({"0", "100", "400"})
+  public int page;
+
+  private MemberSearchCondition condition;
+  private PageRequest pageRequest;
+  private MemberCursor cursor;
+
+  @Setup(Level.Trial)
+  public void setUp(RepositoryState state) {
+    condition = new MemberSearchCondition();
+    pageRequest = PageRequest.of(page, PAGE_SIZE);
+
+    // 같은 페이지를 가리키는 cursor 는 바로 앞 페이지의 마지막 id 다.
+    cursor = MemberCursor.first();
+    if (page > 0) {
+      Page<MemberTeamDto> previous = state.memberRepository
+          .searchPageComplex(condition, PageRequest.of(page - 1, PAGE_SIZE));
+      cursor = MemberCursor.after(
+          previous.getContent().get(previous.getNumberOfElements() - 1).getMemberId());
+    }
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> offsetPageSimple(RepositoryState state) {
+    return state.memberRepository.searchPageSimple(condition, pageRequest);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> offsetPageComplex(RepositoryState state) {
+    return state.memberRepository.searchPageComplex(condition, pageRequest);
+  }
+
+  @Benchmark
+  public Slice<MemberTeamDto> keysetSlice(RepositoryState state) {
+    return state.memberRepository.searchSlice(condition, cursor, PAGE_SIZE);
+  }
+}
@@ -0,0 +1,126 @@
+package hello.noddy.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.noddy.querydsl.controller.ColumnarMemberPageConverter;
+import hello.noddy.querydsl.controller.MemberPageFormatConfig;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Page&lt;MemberTeamDto&gt; 한 페이지를 형식별로 직렬화하는 시간. DB 없이 직렬화만 잰다.
+ * 회원당 바이트 수 (gzip 전 / 후) 는 setUp 에서 한번 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberPageFormatBenchmark {
+
+  @Param({"20", "1000"})
+  public int pageSize;
+
+  @Param("10")
+  public int teams;
+
+  private Page<MemberTeamDto> page;
+  private ObjectMapper jsonMapper;
+  private ObjectMapper smileMapper;
+  private ColumnarMemberPageConverter columnar;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    List<MemberTeamDto> content = new ArrayList<>();
+    for (int i = 0; i < pageSize; i++) {
+      long teamId = i % teams + 1;
+      content.add(new MemberTeamDto(1000L + i, "member" + i, i % 100, teamId, "team" + teamId));
+    }
+    page = new PageImpl<>(content, PageRequest.of(0, pageSize), 100_000);
+
+    // 스프링 부트의 기본 ObjectMapper 와 같은 설정
+    jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    smileMapper = Jackson2ObjectMapperBuilder.smile()
+        .factory(MemberPageFormatConfig.smileFactory()).build();
+    columnar = new ColumnarMemberPageConverter(jsonMapper.getFactory());
+
+    report("json", json(new ByteArrayOutputStream()), gzip(this::json));
+    report("smile", smile(new ByteArrayOutputStream()), gzip(this::smile));
+    report("columnar", columnar(new ByteArrayOutputStream()), gzip(this::columnar));
+  }
+
+  @Benchmark
+  public int json() throws IOException {
+    return json(new ByteArrayOutputStream()).size();
+  }
+
+  @Benchmark
+  public int smile() throws IOException {
+    return smile(new ByteArrayOutputStream()).size();
+  }
+
+  @Benchmark
+  public int columnar() throws IOException {
+    return columnar(new ByteArrayOutputStream()).size();
+  }
+
+  @Benchmark
+  public int jsonGzip() throws IOException {
+    return gzip(this::json);
+  }
+
+  @Benchmark
+  public int columnarGzip() throws IOException {
+    return gzip(this::columnar);
+  }
+
+  private <T extends OutputStream> T json(T out) throws IOException {
+    jsonMapper.writeValue(out, page);
+    return out;
+  }
+
+  private <T extends OutputStream> T smile(T out) throws IOException {
+    smileMapper.writeValue(out, page);
+    return out;
+  }
+
+  private <T extends OutputStream> T columnar(T out) throws IOException {
+    columnar.write(page, out);
+    return out;
+  }
+
+  private int gzip(Writer writer) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      writer.write(out);
+    }
+    return bytes.size();
+  }
+
+  private void report(String format, ByteArrayOutputStream plain, int gzipped) {
+    System.out.printf("%n%-8s pageSize=%d: %.1f bytes/member, gzip %.1f bytes/member%n",
+        format, pageSize, (double) plain.size() / pageSize, (double) gzipped / pageSize);
+  }
+
+  @FunctionalInterface
+  private interface Writer {
+
+    OutputStream write(OutputStream out) throws IOException;
+  }
+}
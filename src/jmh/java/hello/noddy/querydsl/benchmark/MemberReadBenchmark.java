@@ -0,0 +1,40 @@
+package hello.noddy.querydsl.benchmark;
+
+import hello.noddy.querydsl.dto.MemberDto;
+import hello.noddy.querydsl.entity.Member;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 전체 회원 조회를 엔티티로 받을 때와 DTO 로 받을 때의 할당량 비교. (gc 프로파일러의 gc.alloc.rate.norm)
+ * 10만건 기준은 java -jar build/libs/*-jmh.jar MemberRead -p members=100000 으로 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberReadBenchmark {
+
+  // 읽기-쓰기 트랜잭션 안에서 엔티티마다 영속성 컨텍스트 등록과 dirty checking 스냅샷이 생긴다.
+  @Benchmark
+  public List<Member> entityQuerydsl(RepositoryState state) {
+    return state.transactionTemplate.execute(status ->
+        state.memberJpaRepository.findAll_Querydsl());
+  }
+
+  @Benchmark
+  public List<Member> entitySpringData(RepositoryState state) {
+    return state.transactionTemplate.execute(status ->
+        state.memberRepository.findAll());
+  }
+
+  @Benchmark
+  public List<MemberDto> dtoQuerydsl(RepositoryState state) {
+    return state.memberJpaRepository.findAllDto_Querydsl();
+  }
+}
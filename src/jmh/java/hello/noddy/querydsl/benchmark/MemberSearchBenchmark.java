@@ -0,0 +1,92 @@
+package hello.noddy.querydsl.benchmark;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+
+import com.querydsl.core.types.Projections;
+import hello.noddy.querydsl.dto.MemberDto;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.dto.QMemberDto;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * BooleanBuilder 와 where 다중 파라미터, 조건 모양별 JPQL 템플릿, 결과 캐시, 그리고 DTO 프로젝션 방식별 비용 비교.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberSearchBenchmark {
+
+  private MemberSearchCondition condition;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    condition = new MemberSearchCondition();
+    condition.setTeamName("team1");
+    condition.setAgeGoe(20);
+    condition.setAgeLoe(60);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchByBuilder(RepositoryState state) {
+    return state.memberJpaRepository.searchByBuilder(condition);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchByWhereParam(RepositoryState state) {
+    return state.memberJpaRepository.search(condition);
+  }
+
+  // /v1/members 경로. 조건 모양별 JPQL 을 재사용하므로 표현식 트리 생성과 직렬화가 빠진다.
+  @Benchmark
+  public List<MemberTeamDto> searchByTemplate(RepositoryState state) {
+    return state.memberJpaRepository.searchByTemplate(condition);
+  }
+
+  // /v1/members 의 결과 캐시를 거친 경로. 같은 조건만 반복하므로 첫 호출 이후는 모두 히트다.
+  @Benchmark
+  public List<MemberTeamDto> searchCached(RepositoryState state) {
+    return state.memberJpaRepository.searchCached(condition);
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionBean(RepositoryState state) {
+    return state.queryFactory
+        .select(Projections.bean(MemberDto.class, member.username, member.age))
+        .from(member)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionFields(RepositoryState state) {
+    return state.queryFactory
+        .select(Projections.fields(MemberDto.class, member.username, member.age))
+        .from(member)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionConstructor(RepositoryState state) {
+    return state.queryFactory
+        .select(Projections.constructor(MemberDto.class, member.username, member.age))
+        .from(member)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionQueryProjection(RepositoryState state) {
+    return state.queryFactory
+        .select(new QMemberDto(member.username, member.age))
+        .from(member)
+        .fetch();
+  }
+}
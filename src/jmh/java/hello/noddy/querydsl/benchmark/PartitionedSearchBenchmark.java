@@ -0,0 +1,97 @@
+package hello.noddy.querydsl.benchmark;
+
+import hello.noddy.querydsl.QuerydslApplication;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.repository.PartitionedMemberRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * 같은 데이터를 partitions 개의 인메모리 H2 에 나눠 넣고 전체 파티션을 도는 검색을 잰다.
+ * -p partitions=1,2,4,8 로 파티션 수에 따른 처리량 변화를 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PartitionedSearchBenchmark {
+
+  @Param({"1", "2", "4"})
+  public int partitions;
+
+  @Param("100000")
+  public int members;
+
+  @Param("40")
+  public int teams;
+
+  private ConfigurableApplicationContext context;
+  private PartitionedMemberRepository repository;
+  private MemberSearchCondition condition;
+  private PageRequest pageRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<String> args = new ArrayList<>(List.of(
+        "--spring.profiles.active=jmh",
+        "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+        "--logging.level.org.hibernate.SQL=warn",
+        "--member.partition.enabled=true"
+    ));
+    for (int i = 0; i < partitions; i++) {
+      args.add("--member.partition.urls[" + i + "]=jdbc:h2:mem:jmh_partition" + i);
+    }
+    context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(args.toArray(new String[0]));
+    repository = context.getBean(PartitionedMemberRepository.class);
+
+    int perTeam = members / teams;
+    for (int t = 0; t < teams; t++) {
+      Team team = new Team("team" + t);
+      List<Member> teamMembers = new ArrayList<>();
+      for (int i = 0; i < perTeam; i++) {
+        teamMembers.add(new Member("member" + (t * perTeam + i), i % 100, team));
+      }
+      repository.save(team, teamMembers);
+    }
+
+    condition = new MemberSearchCondition();
+    condition.setAgeGoe(90);
+    pageRequest = PageRequest.of(0, 20, Sort.by(Sort.Order.asc("username")));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> search() {
+    return repository.search(condition);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> searchPage() {
+    return repository.searchPage(condition, pageRequest);
+  }
+}
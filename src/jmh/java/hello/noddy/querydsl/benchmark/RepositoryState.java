@@ -0,0 +1,91 @@
+package hello.noddy.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.QuerydslApplication;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.repository.MemberJpaRepository;
+import hello.noddy.querydsl.repository.MemberRepository;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 인메모리 H2 위에 JPA 계층만 띄우고 members / teams 만큼 데이터를 넣어둔다.
+ * 크기는 -p members=100000 -p teams=100 처럼 바꿀 수 있다.
+ */
+@State(Scope.Benchmark)
+public class RepositoryState {
+
+  private static final int FLUSH_SIZE = 1000;
+
+  @Param("10000")
+  public int members;
+
+  @Param("10")
+  public int teams;
+
+  ConfigurableApplicationContext context;
+  EntityManager entityManager;
+  JPAQueryFactory queryFactory;
+  MemberJpaRepository memberJpaRepository;
+  MemberRepository memberRepository;
+  TransactionTemplate transactionTemplate;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(
+            "--spring.profiles.active=jmh",
+            "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.properties.hibernate.format_sql=false",
+            "--spring.jpa.properties.hibernate.use_sql_comments=false",
+            "--logging.level.org.hibernate.SQL=warn"
+        );
+
+    entityManager = context.getBean(EntityManager.class);
+    queryFactory = context.getBean(JPAQueryFactory.class);
+    memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    memberRepository = context.getBean(MemberRepository.class);
+    transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+    seed();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  private void seed() {
+    transactionTemplate.executeWithoutResult(status -> {
+      List<Team> teamList = new ArrayList<>();
+      for (int i = 0; i < teams; i++) {
+        Team team = new Team("team" + i);
+        entityManager.persist(team);
+        teamList.add(team);
+      }
+
+      for (int i = 0; i < members; i++) {
+        entityManager.persist(new Member("member" + i, i % 100, teamList.get(i % teams)));
+        if ((i + 1) % FLUSH_SIZE == 0) {
+          entityManager.flush();
+          entityManager.clear();
+          teamList.replaceAll(team -> entityManager.getReference(Team.class, team.getId()));
+        }
+      }
+    });
+  }
+}
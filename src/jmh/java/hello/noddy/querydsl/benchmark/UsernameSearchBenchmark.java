@@ -0,0 +1,76 @@
+package hello.noddy.querydsl.benchmark;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.dto.QMemberTeamDto;
+import hello.noddy.querydsl.repository.UsernameIndexUpdater;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 이름 접두사 / 부분 문자열 검색을 UsernameIndex 로 할 때와 like 로 할 때 비교.
+ * 회원 이름은 member0 ~ member{members-1} 이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UsernameSearchBenchmark {
+
+  private static final String PREFIX = "member123";
+  private static final String CONTAINS = "r4567";
+
+  private MemberSearchCondition prefixCondition;
+  private MemberSearchCondition containsCondition;
+
+  @Setup(Level.Trial)
+  public void setUp(RepositoryState state) {
+    // 시딩이 커밋된 뒤 한번 더 맞춘다.
+    state.context.getBean(UsernameIndexUpdater.class).rebuild();
+
+    prefixCondition = new MemberSearchCondition();
+    prefixCondition.setUsernamePrefix(PREFIX);
+    containsCondition = new MemberSearchCondition();
+    containsCondition.setUsernameContains(CONTAINS);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> prefixIndexed(RepositoryState state) {
+    return state.memberJpaRepository.search(prefixCondition);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> prefixLike(RepositoryState state) {
+    return state.queryFactory
+        .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(member.username.startsWith(PREFIX))
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> containsIndexed(RepositoryState state) {
+    return state.memberJpaRepository.search(containsCondition);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> containsLike(RepositoryState state) {
+    return state.queryFactory
+        .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(member.username.contains(CONTAINS))
+        .fetch();
+  }
+}
@@ -2,24 +2,69 @@ package hello.noddy.querydsl;
 
 import hello.noddy.querydsl.entity.Member;
 import hello.noddy.querydsl.entity.Team;
-import javax.annotation.PostConstruct;
+import hello.noddy.querydsl.repository.MemberJpaRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
   private final InitMemberService initMemberService;
+  private final SeedProperties properties;
 
-  @PostConstruct
+  /**
+   * 팀을 먼저 넣고, 회원은 chunkSize 단위로 나눠서 각자의 트랜잭션으로 동시에 넣는다.
+   * 다른 스레드에서 빈을 사용하므로 컨텍스트 초기화가 끝난 뒤에 실행한다.
+   */
+  @EventListener(ApplicationReadyEvent.class)
   public void init() {
-    initMemberService.init();
+    long start = System.nanoTime();
+    List<Long> teamIds = initMemberService.initTeams();
+
+    long total = properties.getTotalMembers();
+    int threads = properties.getThreads();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Integer>> chunks = new ArrayList<>();
+      for (long from = 0; from < total; from += properties.getChunkSize()) {
+        long chunkFrom = from;
+        long chunkTo = Math.min(from + properties.getChunkSize(), total);
+        chunks.add(executor.submit(() -> initMemberService.initMembers(teamIds, chunkFrom, chunkTo)));
+      }
+      for (Future<Integer> chunk : chunks) {
+        chunk.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("seed interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("seed failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    log.info("seeded {} teams, {} members in {} ms ({} rows/s, {} threads)",
+        teamIds.size(), total, elapsedMillis, (teamIds.size() + total) * 1000 / elapsedMillis,
+        threads);
   }
 
   @Component
@@ -27,18 +72,66 @@ public class InitMember {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private SeedProperties properties;
+
     @Transactional
-    public void init() {
-      Team teamA = new Team("teamA");
-      Team teamB = new Team("teamB");
-      entityManager.persist(teamA);
-      entityManager.persist(teamB);
-
-      for (int i = 0; i < 100; i++) {
-        Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-        entityManager.persist(new Member("member" + i, i, selectedTeam));
+    public List<Long> initTeams() {
+      List<Long> teamIds = new ArrayList<>();
+      for (int i = 0; i < properties.getTeams(); i++) {
+        Team team = new Team(teamName(i));
+        entityManager.persist(team);
+        teamIds.add(team.getId());
       }
+      return teamIds;
     }
 
+    /**
+     * [from, to) 번째 회원을 넣는다. 난수는 chunk 시작 위치로 시드를 정해서 스레드 순서와 무관하게 재현된다.
+     * 팀이 없으면 팀 없는 회원으로 넣는다.
+     */
+    @Transactional
+    public int initMembers(List<Long> teamIds, long from, long to) {
+      List<Team> teams = new ArrayList<>();
+      for (Long teamId : teamIds) {
+        teams.add(entityManager.find(Team.class, teamId));
+      }
+
+      Random random = new Random(properties.getRandomSeed() + from);
+      List<Member> members = new ArrayList<>();
+      for (long i = from; i < to; i++) {
+        Team selectedTeam = teams.isEmpty() ? null : teams.get((int) (i % teams.size()));
+        members.add(new Member(username(i), age(i, random), selectedTeam));
+      }
+      memberJpaRepository.saveAll(members);
+      return members.size();
+    }
+
+    private String teamName(int index) {
+      // 팀이 적을 때는 기존처럼 teamA, teamB ...
+      return properties.getTeams() <= 26 ? "team" + (char) ('A' + index) : "team" + index;
+    }
+
+    private String username(long index) {
+      int cardinality = properties.getUsernameCardinality();
+      return "member" + (cardinality > 0 ? index % cardinality : index);
+    }
+
+    private int age(long index, Random random) {
+      int min = properties.getMinAge();
+      int range = properties.getMaxAge() - min + 1;
+      switch (properties.getAgeDistribution()) {
+        case UNIFORM:
+          return min + random.nextInt(range);
+        case NORMAL:
+          double age = min + range / 2.0 + random.nextGaussian() * range / 6.0;
+          return (int) Math.max(min, Math.min(properties.getMaxAge(), Math.round(age)));
+        default:
+          return (int) (min + index % range);
+      }
+    }
   }
 }
@@ -1,12 +1,22 @@
 package hello.noddy.querydsl;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.repository.UsernameIndex;
+import hello.noddy.querydsl.support.MeteredJPAQueryFactory;
+import hello.noddy.querydsl.support.QueryMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(SeedProperties.class) // InitMemberService 는 local 이 아닌 프로필에서도 등록된다.
 public class QuerydslApplication {
 
 	public static void main(String[] args) {
@@ -14,7 +24,19 @@ public class QuerydslApplication {
 	}
 
 	@Bean
-	JPAQueryFactory jpaQueryFactory(EntityManager entityManager) {
-		return new JPAQueryFactory(entityManager);
+	QueryMetrics queryMetrics(MeterRegistry meterRegistry) {
+		return new QueryMetrics(meterRegistry);
+	}
+
+	@Bean
+	JPAQueryFactory jpaQueryFactory(EntityManager entityManager, QueryMetrics queryMetrics,
+			ApplicationEventPublisher eventPublisher) {
+		return new MeteredJPAQueryFactory(entityManager, queryMetrics, eventPublisher);
+	}
+
+	// usernamePrefix / usernameContains 검색용. 찾은 회원이 max-matches 보다 많으면 like 로 조회한다.
+	@Bean
+	UsernameIndex usernameIndex(@Value("${member.username-index.max-matches:1000}") int maxMatches) {
+		return new UsernameIndex(maxMatches);
 	}
 }
@@ -0,0 +1,57 @@
+package hello.noddy.querydsl;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * local 프로필에서 InitMember 가 넣는 데이터 크기와 분포.
+ * 같은 설정이면 항상 같은 데이터가 만들어진다. 잘못된 값이면 시작할 때 실패한다.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "seed")
+public class SeedProperties {
+
+  @PositiveOrZero
+  private int teams = 2;
+  @PositiveOrZero
+  private int membersPerTeam = 50;
+
+  private AgeDistribution ageDistribution = AgeDistribution.SEQUENTIAL;
+  @PositiveOrZero
+  private int minAge = 0;
+  private int maxAge = 99;
+
+  // 서로 다른 username 의 수. 0 이면 회원마다 다른 이름
+  @PositiveOrZero
+  private int usernameCardinality = 0;
+
+  // 트랜잭션 하나에서 넣는 회원 수, 동시에 넣는 스레드 수
+  @Positive
+  private int chunkSize = 10_000;
+  @Positive
+  private int threads = 4;
+
+  private long randomSeed = 42L;
+
+  @AssertTrue(message = "min-age must not be greater than max-age")
+  public boolean isAgeRangeValid() {
+    return minAge <= maxAge;
+  }
+
+  public long getTotalMembers() {
+    return (long) teams * membersPerTeam;
+  }
+
+  public enum AgeDistribution {
+    SEQUENTIAL, // minAge ~ maxAge 를 순서대로 반복
+    UNIFORM,
+    NORMAL // minAge ~ maxAge 가운데를 평균으로
+  }
+}
@@ -0,0 +1,46 @@
+package hello.noddy.querydsl.controller;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.repository.MemberAsyncSearch;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * member.async.enabled=true 일 때만 등록된다.
+ * 쿼리가 도는 동안 서블릿 스레드를 돌려주고, 결과는 CompletableFuture 로 비동기 디스패치한다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.async", name = "enabled", havingValue = "true")
+public class AsyncMemberController {
+
+  private final MemberAsyncSearch memberAsyncSearch;
+
+  @GetMapping("/async/v1/members")
+  public CompletableFuture<List<MemberTeamDto>> searchMemberV1(MemberSearchCondition condition) {
+    return memberAsyncSearch.search(condition);
+  }
+
+  @GetMapping("/async/v3/members")
+  public CompletableFuture<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition,
+      Pageable pageable) {
+    return memberAsyncSearch.searchPageComplex(condition, pageable);
+  }
+
+  // executor 큐가 가득 찼다.
+  @ExceptionHandler(TaskRejectedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public void busy() {
+  }
+}
@@ -0,0 +1,154 @@
+package hello.noddy.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Page&lt;MemberTeamDto&gt; 를 열 단위 JSON 으로 쓴다. Accept 에 MEDIA_TYPE 을 보낸 요청에만 쓰인다.
+ * <pre>
+ * {"number":0,"size":20,"totalElements":100,"totalPages":5,
+ *  "memberId":[1,2],"username":["member1","member2"],"age":[10,20],
+ *  "team":[0,null],"teams":[[1,"teamA"]]}
+ * </pre>
+ * 같은 필드명을 행마다 반복하지 않고, 팀은 teams 사전의 위치로만 쓴다. 팀이 없으면 null
+ * 본문은 JSON 이지만 +json 을 붙이지 않는다. 붙이면 application/*+json 을 지원하는 Jackson 컨버터가 먼저 가져간다.
+ */
+public class ColumnarMemberPageConverter
+    extends AbstractGenericHttpMessageConverter<Page<MemberTeamDto>> {
+
+  public static final String MEDIA_TYPE_VALUE = "application/vnd.member-page.columnar";
+  public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+  private final JsonFactory jsonFactory;
+
+  public ColumnarMemberPageConverter(JsonFactory jsonFactory) {
+    super(MEDIA_TYPE);
+    this.jsonFactory = jsonFactory;
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+    if (!canWrite(mediaType)) {
+      return false;
+    }
+    ResolvableType pageType = (type != null ? ResolvableType.forType(type)
+        : ResolvableType.forClass(clazz)).as(Page.class);
+    return pageType != ResolvableType.NONE
+        && MemberTeamDto.class.equals(pageType.getGeneric(0).resolve());
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return Page.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected void writeInternal(Page<MemberTeamDto> page, Type type,
+      HttpOutputMessage outputMessage) throws IOException {
+    write(page, outputMessage.getBody());
+  }
+
+  public void write(Page<MemberTeamDto> page, OutputStream out) throws IOException {
+    List<MemberTeamDto> content = page.getContent();
+    JsonGenerator generator = jsonFactory.createGenerator(out);
+    generator.writeStartObject();
+    generator.writeNumberField("number", page.getNumber());
+    generator.writeNumberField("size", page.getSize());
+    generator.writeNumberField("totalElements", page.getTotalElements());
+    generator.writeNumberField("totalPages", page.getTotalPages());
+
+    generator.writeArrayFieldStart("memberId");
+    for (MemberTeamDto dto : content) {
+      writeNumber(generator, dto.getMemberId());
+    }
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("username");
+    for (MemberTeamDto dto : content) {
+      generator.writeString(dto.getUsername());
+    }
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("age");
+    for (MemberTeamDto dto : content) {
+      generator.writeNumber(dto.getAge());
+    }
+    generator.writeEndArray();
+
+    // teamId 별로 처음 나온 순서대로 번호를 붙인다.
+    Map<Long, Integer> teamIndexes = new HashMap<>();
+    List<MemberTeamDto> teams = new ArrayList<>();
+    generator.writeArrayFieldStart("team");
+    for (MemberTeamDto dto : content) {
+      if (dto.getTeamId() == null) {
+        generator.writeNull();
+        continue;
+      }
+      Integer index = teamIndexes.get(dto.getTeamId());
+      if (index == null) {
+        index = teams.size();
+        teamIndexes.put(dto.getTeamId(), index);
+        teams.add(dto);
+      }
+      generator.writeNumber(index);
+    }
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("teams");
+    for (MemberTeamDto team : teams) {
+      generator.writeStartArray();
+      generator.writeNumber(team.getTeamId());
+      generator.writeString(team.getTeamName());
+      generator.writeEndArray();
+    }
+    generator.writeEndArray();
+
+    generator.writeEndObject();
+    generator.flush();
+  }
+
+  private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value);
+    }
+  }
+
+  @Override
+  public Page<MemberTeamDto> read(Type type, Class<?> contextClass,
+      HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("write only", inputMessage);
+  }
+
+  @Override
+  protected Page<MemberTeamDto> readInternal(Class<? extends Page<MemberTeamDto>> clazz,
+      HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("write only", inputMessage);
+  }
+}
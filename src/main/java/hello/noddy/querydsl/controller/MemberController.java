@@ -1,26 +1,53 @@
 package hello.noddy.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hello.noddy.querydsl.dto.MemberCursor;
 import hello.noddy.querydsl.dto.MemberSearchCondition;
 import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.dto.MemberTeamSliceDto;
 import hello.noddy.querydsl.repository.MemberJpaRepository;
 import hello.noddy.querydsl.repository.MemberRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+  private static final int MAX_SLICE_SIZE = 100;
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
   private final MemberJpaRepository memberJpaRepository;
   private final MemberRepository memberRepository;
+  private final ObjectMapper objectMapper;
 
   @GetMapping("/v1/members")
   public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-    return memberJpaRepository.search(condition);
+    return memberJpaRepository.searchCached(condition);
+  }
+
+  /**
+   * 조건에 맞는 회원이 있으면 200, 없으면 404. 본문 없이 존재 여부만 확인한다.
+   */
+  @RequestMapping(value = "/v1/members", method = RequestMethod.HEAD)
+  public ResponseEntity<Void> existsMemberV1(MemberSearchCondition condition) {
+    return memberJpaRepository.existsBy(condition)
+        ? ResponseEntity.ok().build()
+        : ResponseEntity.notFound().build();
   }
 
   @GetMapping("/v2/members")
@@ -32,4 +59,40 @@ public class MemberController {
   public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
     return memberRepository.searchPageComplex(condition, pageable);
   }
+
+  @GetMapping("/v4/members")
+  public MemberTeamSliceDto searchMemberV4(MemberSearchCondition condition,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    int sliceSize = Math.max(1, Math.min(size, MAX_SLICE_SIZE));
+    Slice<MemberTeamDto> slice = memberRepository
+        .searchSlice(condition, MemberCursor.decode(cursor), sliceSize);
+
+    List<MemberTeamDto> content = slice.getContent();
+    String nextCursor = slice.hasNext()
+        ? MemberCursor.after(content.get(content.size() - 1).getMemberId()).encode()
+        : null;
+    return new MemberTeamSliceDto(content, slice.hasNext(), nextCursor);
+  }
+
+  /**
+   * 검색 결과 전체를 NDJSON 으로 내려준다.
+   * 한 줄씩 바로 써서 결과 건수와 무관하게 메모리를 일정하게 사용한다.
+   */
+  @GetMapping("/members/export")
+  public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition) {
+    ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class);
+    StreamingResponseBody body = out -> memberJpaRepository.searchStream(condition, dto -> {
+      try {
+        out.write(writer.writeValueAsBytes(dto));
+        out.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    return ResponseEntity.ok()
+        .contentType(NDJSON)
+        .body(body);
+  }
 }
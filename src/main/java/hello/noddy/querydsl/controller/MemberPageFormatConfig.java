@@ -0,0 +1,50 @@
+package hello.noddy.querydsl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 회원 페이지 응답 형식. Accept 를 보내지 않으면 지금처럼 JSON 이다.
+ * <ul>
+ *   <li>application/x-jackson-smile : 반복되는 필드명과 문자열 값 (팀명) 을 앞에 나온 값의 참조로 쓴다.</li>
+ *   <li>{@link ColumnarMemberPageConverter#MEDIA_TYPE_VALUE} : Page&lt;MemberTeamDto&gt; 전용 열 단위 JSON</li>
+ * </ul>
+ */
+@Configuration
+public class MemberPageFormatConfig implements WebMvcConfigurer {
+
+  private final ObjectMapper objectMapper;
+
+  public MemberPageFormatConfig(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * 기본 Smile 컨버터를 대신한다. 문자열 값 공유는 기본이 꺼져 있다.
+   */
+  @Bean
+  MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+  }
+
+  public static SmileFactory smileFactory() {
+    return SmileFactory.builder()
+        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+        .build();
+  }
+
+  // 맨 뒤에 둔다. 앞에 두면 Accept: */* 요청도 열 단위 형식으로 나간다.
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(new ColumnarMemberPageConverter(objectMapper.getFactory()));
+  }
+}
@@ -0,0 +1,35 @@
+package hello.noddy.querydsl.controller;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.repository.PartitionedMemberRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * member.partition.enabled=true 일 때만 등록된다.
+ * 파티션 DB 들의 회원을 조회한다. 기본 DB 를 읽는 /v1 ~ /v4 와는 데이터가 다르므로 경로를 나눈다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.partition", name = "enabled", havingValue = "true")
+public class PartitionedMemberController {
+
+  private final PartitionedMemberRepository partitionedMemberRepository;
+
+  @GetMapping("/partitioned/members")
+  public List<MemberTeamDto> searchMember(MemberSearchCondition condition) {
+    return partitionedMemberRepository.search(condition);
+  }
+
+  @GetMapping("/partitioned/members/page")
+  public Page<MemberTeamDto> searchMemberPage(MemberSearchCondition condition,
+      Pageable pageable) {
+    return partitionedMemberRepository.searchPage(condition, pageable);
+  }
+}
@@ -0,0 +1,22 @@
+package hello.noddy.querydsl.controller;
+
+import hello.noddy.querydsl.support.InvalidSearchRequestException;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 모든 검색 엔드포인트 (/v1 ~ /v4, /async, /partitioned) 의 잘못된 요청을 400 과 메시지로 응답한다.
+ */
+@RestControllerAdvice
+public class SearchRequestExceptionHandler {
+
+  // 잘못된 cursor, 허용되지 않은 정렬 조건
+  @ExceptionHandler(InvalidSearchRequestException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> badRequest(InvalidSearchRequestException e) {
+    return Map.of("message", e.getMessage());
+  }
+}
@@ -0,0 +1,20 @@
+package hello.noddy.querydsl.controller;
+
+import hello.noddy.querydsl.dto.TeamStatsDto;
+import hello.noddy.querydsl.repository.TeamStatsRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+  private final TeamStatsRepository teamStatsRepository;
+
+  @GetMapping("/teams/stats")
+  public List<TeamStatsDto> teamStats() {
+    return teamStatsRepository.findAll();
+  }
+}
@@ -0,0 +1,65 @@
+package hello.noddy.querydsl.dto;
+
+import hello.noddy.querydsl.support.InvalidSearchRequestException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.StringUtils;
+
+/**
+ * keyset(seek) 페이징의 위치. 마지막으로 읽은 member id 다음부터 조회한다.
+ * 클라이언트에는 encode() 로 만든 불투명한 토큰만 내려준다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class MemberCursor {
+
+  private static final String PREFIX = "m:";
+
+  private final Long lastId;
+
+  private MemberCursor(Long lastId) {
+    this.lastId = lastId;
+  }
+
+  public static MemberCursor first() {
+    return new MemberCursor(null);
+  }
+
+  public static MemberCursor after(Long lastId) {
+    return new MemberCursor(lastId);
+  }
+
+  public static MemberCursor decode(String token) {
+    if (!StringUtils.hasText(token)) {
+      return first();
+    }
+    Long lastId;
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      lastId = decoded.startsWith(PREFIX) ? Long.valueOf(decoded.substring(PREFIX.length())) : null;
+    } catch (IllegalArgumentException e) {
+      // NumberFormatException 도 IllegalArgumentException 이다.
+      throw new InvalidSearchRequestException("invalid cursor: " + token, e);
+    }
+    if (lastId == null) {
+      throw new InvalidSearchRequestException("invalid cursor: " + token);
+    }
+    return after(lastId);
+  }
+
+  public String encode() {
+    if (lastId == null) {
+      return null;
+    }
+    byte[] bytes = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  public boolean isFirst() {
+    return lastId == null;
+  }
+}
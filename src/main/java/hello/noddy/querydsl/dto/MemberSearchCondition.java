@@ -1,5 +1,6 @@
 package hello.noddy.querydsl.dto;
 
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -10,4 +11,12 @@ public class MemberSearchCondition {
   private String teamName;
   private Integer ageGoe;
   private Integer ageLoe;
+
+  // 여러 값 중 하나 (?usernames=a,b 또는 ?usernames=a&usernames=b)
+  private List<String> usernames;
+  private List<String> teamNames;
+
+  // 이름 접두사 / 부분 문자열 (UsernameIndex)
+  private String usernamePrefix;
+  private String usernameContains;
 }
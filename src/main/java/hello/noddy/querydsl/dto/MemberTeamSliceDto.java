@@ -0,0 +1,17 @@
+package hello.noddy.querydsl.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class MemberTeamSliceDto {
+  private List<MemberTeamDto> content;
+  private boolean hasNext;
+  private String nextCursor;
+
+  public MemberTeamSliceDto(List<MemberTeamDto> content, boolean hasNext, String nextCursor) {
+    this.content = content;
+    this.hasNext = hasNext;
+    this.nextCursor = nextCursor;
+  }
+}
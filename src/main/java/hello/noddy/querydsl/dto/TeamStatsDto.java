@@ -0,0 +1,25 @@
+package hello.noddy.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+  private Long teamId;
+  private String teamName;
+  private long memberCount;
+  private Double averageAge;
+  private Integer minAge;
+  private Integer maxAge;
+
+  @QueryProjection
+  public TeamStatsDto(Long teamId, String teamName, long memberCount, long ageSum,
+      Integer minAge, Integer maxAge) {
+    this.teamId = teamId;
+    this.teamName = teamName;
+    this.memberCount = memberCount;
+    this.averageAge = memberCount > 0 ? (double) ageSum / memberCount : null;
+    this.minAge = minAge;
+    this.maxAge = maxAge;
+  }
+}
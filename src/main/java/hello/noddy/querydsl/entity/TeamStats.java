@@ -0,0 +1,26 @@
+package hello.noddy.querydsl.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 수 / 나이 합계 / 최소 / 최대 나이. 조회할 때 member 를 집계하지 않도록 미리 계산해 둔다.
+ * TeamStatsUpdater 가 JDBC 로 직접 갱신하므로 엔티티로 수정하지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+  @Id
+  private Long teamId;
+  private long memberCount;
+  private long ageSum;
+  private Integer minAge;
+  private Integer maxAge;
+}
@@ -0,0 +1,18 @@
+package hello.noddy.querydsl.repository;
+
+/**
+ * MemberBulkRepository 가 청크 하나를 커밋할 때마다 호출된다.
+ */
+@FunctionalInterface
+public interface BulkProgressListener {
+
+  BulkProgressListener NONE = (lastId, maxId, affectedRows) -> {
+  };
+
+  /**
+   * @param lastId       지금까지 처리한 id (이 id 이하는 끝났다)
+   * @param maxId        처리할 마지막 id
+   * @param affectedRows 지금까지 바뀐 행 수 (누적)
+   */
+  void onChunk(long lastId, long maxId, long affectedRows);
+}
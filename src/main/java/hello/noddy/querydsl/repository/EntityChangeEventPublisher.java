@@ -0,0 +1,108 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.repository.MemberChangedEvent.Type;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * hibernate 엔티티 이벤트를 받아서 Member / Team 변경을 스프링 이벤트로 발행한다.
+ * em.persist, 스프링 데이터 save, dirty checking 등 어느 경로로 바뀌어도 잡힌다.
+ * 벌크 update / delete 는 엔티티 이벤트가 없으므로 BulkExecutedEvent 를 따로 본다.
+ */
+@Component
+public class EntityChangeEventPublisher implements PostInsertEventListener,
+    PostUpdateEventListener, PostDeleteEventListener {
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public EntityChangeEventPublisher(EntityManagerFactory entityManagerFactory,
+      ApplicationEventPublisher eventPublisher) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @PostConstruct
+  public void register() {
+    EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_INSERT, this);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (event.getEntity() instanceof Member) {
+      Member member = (Member) event.getEntity();
+      eventPublisher.publishEvent(new MemberChangedEvent(Type.INSERT, member.getId(),
+          null, member.getUsername(),
+          null, teamIdOf(member.getTeam()),
+          null, member.getAge()));
+    } else if (event.getEntity() instanceof Team) {
+      eventPublisher.publishEvent(new TeamChangedEvent((Long) event.getId(), false));
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    if (event.getEntity() instanceof Member) {
+      Member member = (Member) event.getEntity();
+      Object[] oldState = event.getOldState();
+      EntityPersister persister = event.getPersister();
+      eventPublisher.publishEvent(new MemberChangedEvent(Type.UPDATE, member.getId(),
+          (String) valueOf(persister, oldState, "username"), member.getUsername(),
+          teamIdOf((Team) valueOf(persister, oldState, "team")), teamIdOf(member.getTeam()),
+          (Integer) valueOf(persister, oldState, "age"), member.getAge()));
+    } else if (event.getEntity() instanceof Team) {
+      eventPublisher.publishEvent(new TeamChangedEvent((Long) event.getId(), false));
+    }
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    if (event.getEntity() instanceof Member) {
+      Object[] state = event.getDeletedState();
+      EntityPersister persister = event.getPersister();
+      eventPublisher.publishEvent(new MemberChangedEvent(Type.DELETE, (Long) event.getId(),
+          (String) valueOf(persister, state, "username"), null,
+          teamIdOf((Team) valueOf(persister, state, "team")), null,
+          (Integer) valueOf(persister, state, "age"), null));
+    } else if (event.getEntity() instanceof Team) {
+      eventPublisher.publishEvent(new TeamChangedEvent((Long) event.getId(), true));
+    }
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    return false;
+  }
+
+  // detached 엔티티를 update 하면 이전 상태가 없을 수 있다.
+  private Object valueOf(EntityPersister persister, Object[] state, String property) {
+    if (state == null) {
+      return null;
+    }
+    return state[persister.getEntityMetamodel().getPropertyIndex(property)];
+  }
+
+  // 프록시를 초기화하지 않도록 getId 만 호출한다.
+  private Long teamIdOf(Team team) {
+    return team != null ? team.getId() : null;
+  }
+}
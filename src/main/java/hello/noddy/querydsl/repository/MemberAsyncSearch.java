@@ -0,0 +1,87 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.support.AsyncSearchProperties;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 리포지토리 호출을 서블릿 스레드 대신 전용 스레드 풀에서 실행한다.
+ * 쿼리마다 별도 스레드의 읽기 전용 트랜잭션이라 커넥션과 영속성 컨텍스트도 따로 쓴다.
+ *
+ * executor 를 빈으로 등록하면 스프링 부트의 applicationTaskExecutor (MVC 비동기 처리에 쓰는) 가
+ * 만들어지지 않으므로 여기서 직접 만들고 닫는다.
+ */
+@Component
+@EnableConfigurationProperties(AsyncSearchProperties.class)
+@ConditionalOnProperty(prefix = "member.async", name = "enabled", havingValue = "true")
+public class MemberAsyncSearch implements DisposableBean {
+
+  private final MemberRepository memberRepository;
+  private final MemberJpaRepository memberJpaRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final ThreadPoolTaskExecutor executor;
+
+  public MemberAsyncSearch(MemberRepository memberRepository,
+      MemberJpaRepository memberJpaRepository, PlatformTransactionManager transactionManager,
+      AsyncSearchProperties properties) {
+    this.memberRepository = memberRepository;
+    this.memberJpaRepository = memberJpaRepository;
+
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+
+    this.executor = new ThreadPoolTaskExecutor();
+    this.executor.setCorePoolSize(properties.getPoolSize());
+    this.executor.setMaxPoolSize(properties.getPoolSize());
+    this.executor.setQueueCapacity(properties.getQueueCapacity());
+    this.executor.setThreadNamePrefix("member-search-");
+    this.executor.initialize();
+  }
+
+  /**
+   * searchCached 는 캐시를 채울 때 primary 에서 새 트랜잭션을 여므로 readOnly 트랜잭션으로 감싸지 않는다.
+   * 감싸면 바깥 트랜잭션의 커넥션까지 스레드마다 두 개를 잡는다.
+   */
+  public CompletableFuture<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+    return CompletableFuture.supplyAsync(() -> memberJpaRepository.searchCached(condition),
+        executor);
+  }
+
+  /**
+   * content 와 count 를 동시에 실행한다.
+   * count 가 필요 없는 페이지여도 이미 실행 중이므로, 응답 시간은 둘 중 느린 쪽이 된다.
+   */
+  public CompletableFuture<Page<MemberTeamDto>> searchPageComplex(MemberSearchCondition condition,
+      Pageable pageable) {
+    CompletableFuture<List<MemberTeamDto>> content =
+        supplyAsync(() -> memberRepository.searchContent(condition, pageable));
+    CompletableFuture<Long> count =
+        supplyAsync(() -> memberRepository.searchCount(condition));
+
+    return content.thenCombine(count,
+        (results, total) -> PageableExecutionUtils.getPage(results, pageable, () -> total));
+  }
+
+  private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+    return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()),
+        executor);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
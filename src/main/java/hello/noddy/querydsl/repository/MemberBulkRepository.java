@@ -0,0 +1,136 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * member 벌크 update / delete 를 id 범위로 잘라서 청크마다 따로 커밋한다.
+ * 한 문장으로 전체를 바꾸면 그동안 대상 행 전체에 락이 걸리므로, 청크 크기만큼만 잠깐씩 잡는다.
+ *
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 청크 전에 flush, 후에 clear 한다.
+ * team_stats 는 청크의 id 범위에 있는 팀만 다시 집계하고 (TeamStatsUpdater.recomputeForBulk)
+ * username 인덱스도 청크의 id 범위만 다시 읽는다. (UsernameIndexUpdater.refreshForBulk)
+ * 트랜잭션 밖에서만 호출할 수 있다. 트랜잭션 안에서는 청크마다 커밋할 수 없고, clear 가 호출하는 쪽 엔티티를 준영속으로 만든다.
+ */
+@Slf4j
+@Repository
+public class MemberBulkRepository {
+
+  private final EntityManager em;
+  private final JPAQueryFactory queryFactory;
+  private final TeamStatsUpdater teamStatsUpdater;
+  private final UsernameIndexUpdater usernameIndexUpdater;
+  private final TransactionTemplate transactionTemplate;
+  private final int defaultChunkSize;
+
+  public MemberBulkRepository(EntityManager em, JPAQueryFactory queryFactory,
+      TeamStatsUpdater teamStatsUpdater, UsernameIndexUpdater usernameIndexUpdater,
+      PlatformTransactionManager transactionManager,
+      @Value("${member.bulk.chunk-size:1000}") int defaultChunkSize) {
+    this.em = em;
+    this.queryFactory = queryFactory;
+    this.teamStatsUpdater = teamStatsUpdater;
+    this.usernameIndexUpdater = usernameIndexUpdater;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.defaultChunkSize = defaultChunkSize;
+  }
+
+  /**
+   * condition 에 맞는 회원의 나이를 delta 만큼 더한다.
+   */
+  public long addAge(Predicate condition, int delta, BulkProgressListener listener) {
+    return update(condition, clause -> clause.set(member.age, member.age.add(delta)), listener);
+  }
+
+  public long update(Predicate condition, UnaryOperator<JPAUpdateClause> assignments,
+      BulkProgressListener listener) {
+    return update(condition, assignments, defaultChunkSize, listener);
+  }
+
+  public long update(Predicate condition, UnaryOperator<JPAUpdateClause> assignments,
+      int chunkSize, BulkProgressListener listener) {
+    return inChunks(condition, chunkSize, listener, (from, to) ->
+        assignments.apply(queryFactory.update(member))
+            .where(condition, member.id.between(from, to))
+            .execute());
+  }
+
+  public long delete(Predicate condition, BulkProgressListener listener) {
+    return delete(condition, defaultChunkSize, listener);
+  }
+
+  public long delete(Predicate condition, int chunkSize, BulkProgressListener listener) {
+    return inChunks(condition, chunkSize, listener, (from, to) ->
+        queryFactory.delete(member)
+            .where(condition, member.id.between(from, to))
+            .execute());
+  }
+
+  private long inChunks(Predicate condition, int chunkSize, BulkProgressListener listener,
+      ChunkOperation operation) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("bulk member operations must not run inside a transaction");
+    }
+
+    Tuple range = queryFactory
+        .select(member.id.min(), member.id.max())
+        .from(member)
+        .where(condition)
+        .fetchOne();
+    Long minId = range.get(member.id.min());
+    Long maxId = range.get(member.id.max());
+    if (minId == null) {
+      return 0; // 대상이 없다.
+    }
+
+    long affected = 0;
+    for (long from = minId; from <= maxId; from += chunkSize) {
+      long to = Math.min(from + chunkSize - 1, maxId);
+      long chunkFrom = from;
+      Long rows = transactionTemplate.execute(status -> {
+        em.flush();
+        teamStatsUpdater.recomputeForBulk(teamIdsBetween(chunkFrom, to));
+        usernameIndexUpdater.refreshForBulk(chunkFrom, to);
+        long executed = operation.execute(chunkFrom, to);
+        teamStatsUpdater.recomputeForBulk(teamIdsBetween(chunkFrom, to)); // 옮겨간 팀
+        em.clear();
+        return executed;
+      });
+      affected += rows;
+      listener.onChunk(to, maxId, affected);
+      log.debug("bulk member chunk {}..{} / {}: {} rows", chunkFrom, to, maxId, rows);
+    }
+    return affected;
+  }
+
+  private List<Long> teamIdsBetween(long fromId, long toId) {
+    return queryFactory
+        .select(member.team.id)
+        .distinct()
+        .from(member)
+        .where(member.id.between(fromId, toId), member.team.isNotNull())
+        .fetch();
+  }
+
+  @FunctionalInterface
+  private interface ChunkOperation {
+
+    long execute(long fromId, long toId);
+  }
+}
@@ -0,0 +1,40 @@
+package hello.noddy.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Member 엔티티가 insert / update / delete 될 때 (flush 시점) 발행된다.
+ * 값이 없는 쪽(insert 의 old, delete 의 new)은 null 이다.
+ */
+@Getter
+@ToString
+public class MemberChangedEvent {
+
+  public enum Type {
+    INSERT, UPDATE, DELETE
+  }
+
+  private final Type type;
+  private final Long memberId;
+  private final String oldUsername;
+  private final String newUsername;
+  private final Long oldTeamId;
+  private final Long newTeamId;
+  private final Integer oldAge;
+  private final Integer newAge;
+
+  public MemberChangedEvent(Type type, Long memberId,
+      String oldUsername, String newUsername,
+      Long oldTeamId, Long newTeamId,
+      Integer oldAge, Integer newAge) {
+    this.type = type;
+    this.memberId = memberId;
+    this.oldUsername = oldUsername;
+    this.newUsername = newUsername;
+    this.oldTeamId = oldTeamId;
+    this.newTeamId = newTeamId;
+    this.oldAge = oldAge;
+    this.newAge = newAge;
+  }
+}
@@ -3,38 +3,93 @@ package hello.noddy.querydsl.repository;
 import static hello.noddy.querydsl.entity.QMember.*;
 import static hello.noddy.querydsl.entity.QTeam.*;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.MemberDto;
 import hello.noddy.querydsl.dto.MemberSearchCondition;
 import hello.noddy.querydsl.dto.MemberTeamDto;
 import hello.noddy.querydsl.dto.QMemberDto;
 import hello.noddy.querydsl.dto.QMemberTeamDto;
 import hello.noddy.querydsl.entity.Member;
 import hello.noddy.querydsl.entity.QMember;
-import hello.noddy.querydsl.entity.QTeam;
+import hello.noddy.querydsl.support.QueryMetrics;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import javax.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Repository
 public class MemberJpaRepository {
 
+  private static final int STREAM_FETCH_SIZE = 1000;
+  private static final int SAVE_FLUSH_SIZE = 100; // hibernate.jdbc.batch_size 와 맞춘다.
+
   private final EntityManager em;
   private final JPAQueryFactory queryFactory;
+  private final QueryMetrics queryMetrics;
+  private final MemberSearchCache searchCache;
+  private final MemberSearchPredicates searchPredicates;
+  private final MemberSearchTemplates searchTemplates = new MemberSearchTemplates();
+  private final TransactionTemplate primaryRead;
 
-  public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory) {
+  public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory,
+      QueryMetrics queryMetrics, TeamIdResolver teamIdResolver, MemberSearchCache searchCache,
+      UsernameIndex usernameIndex, UsernameIndexUpdater usernameIndexUpdater,
+      PlatformTransactionManager transactionManager) {
     this.em = em;
     this.queryFactory = queryFactory;
+    this.queryMetrics = queryMetrics;
+    this.searchCache = searchCache;
+    this.searchPredicates = new MemberSearchPredicates(teamIdResolver, usernameIndex,
+        usernameIndexUpdater);
+
+    // 캐시를 채울 때는 복제가 늦는 replica 대신 primary 에서 읽는다. (readOnly 가 아닌 새 트랜잭션)
+    this.primaryRead = new TransactionTemplate(transactionManager);
+    this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
   }
 
   public void save(Member member) {
     em.persist(member);
   }
 
+  @Transactional
+  public void saveAll(Iterable<Member> members) {
+    saveAll(members, SAVE_FLUSH_SIZE);
+  }
+
+  /**
+   * flushSize 건마다 flush 로 insert 를 배치로 보내고, clear 로 영속성 컨텍스트가 커지지 않게 한다.
+   * clear 하므로 호출하는 쪽 트랜잭션의 다른 엔티티도 준영속 상태가 된다.
+   */
+  @Transactional
+  public void saveAll(Iterable<Member> members, int flushSize) {
+    if (flushSize < 1) {
+      throw new IllegalArgumentException("flushSize must be positive: " + flushSize);
+    }
+
+    int count = 0;
+    for (Member member : members) {
+      em.persist(member);
+      if (++count % flushSize == 0) {
+        em.flush();
+        em.clear();
+      }
+    }
+    em.flush();
+    em.clear();
+  }
+
   public Optional<Member> findById(Long id) {
     Member findMember = em.find(Member.class, id);
     return Optional.ofNullable(findMember);
@@ -64,20 +119,37 @@ public class MemberJpaRepository {
         .fetch();
   }
 
+  /**
+   * findAll_Querydsl 의 조회 전용 버전. 엔티티 대신 DTO 로 받아서 영속성 컨텍스트에 아무것도 올리지 않는다.
+   * 조회 전에 flush 도 하지 않는다.
+   */
+  @Transactional(readOnly = true)
+  public List<MemberDto> findAllDto_Querydsl() {
+    return queryFactory
+        .select(new QMemberDto(member.username, member.age))
+        .from(member)
+        .setHint(QueryHints.HINT_READONLY, true)
+        .setHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+        .fetch();
+  }
+
+  @Transactional(readOnly = true)
+  public List<MemberDto> findDtoByUsername_Querydsl(String username) {
+    return queryFactory
+        .select(new QMemberDto(member.username, member.age))
+        .from(member)
+        .where(member.username.eq(username))
+        .setHint(QueryHints.HINT_READONLY, true)
+        .setHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+        .fetch();
+  }
+
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
     BooleanBuilder builder = new BooleanBuilder();
-    if (StringUtils.hasText(condition.getUsername())) {
-      builder.and(member.username.eq(condition.getUsername()));
-    }
-    if (StringUtils.hasText(condition.getTeamName())) {
-      builder.and(team.name.eq(condition.getTeamName()));
-    }
-    if (condition.getAgeGoe() != null) {
-      builder.and(member.age.goe(condition.getAgeGoe()));
-    }
-    if (condition.getAgeLoe() != null) {
-      builder.and(member.age.loe(condition.getAgeLoe()));
+    for (BooleanExpression predicate : predicates(condition)) {
+      builder.and(predicate);
     }
 
     return queryFactory
@@ -94,6 +166,7 @@ public class MemberJpaRepository {
         .fetch();
   }
 
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> search(MemberSearchCondition condition) {
     return queryFactory
         .select(new QMemberTeamDto(
@@ -105,28 +178,84 @@ public class MemberJpaRepository {
         ))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(predicates(condition))
         .fetch();
   }
 
-  private BooleanExpression usernameEq(String username) {
-    return StringUtils.hasText(username) ? member.username.eq(username) : null;
+  /**
+   * 조건에 맞는 회원이 하나라도 있는지. fetchCount() 와 달리 첫 행을 찾으면 멈춘다.
+   */
+  @Transactional(readOnly = true)
+  public boolean existsBy(MemberSearchCondition condition) {
+    Integer found = queryFactory
+        .selectOne()
+        .from(member)
+        .where(predicates(condition))
+        .fetchFirst();
+    return found != null;
+  }
+
+  /**
+   * search 와 같은 결과를 조건 모양별로 미리 만들어 둔 JPQL 로 조회한다.
+   */
+  @Transactional(readOnly = true)
+  public List<MemberTeamDto> searchByTemplate(MemberSearchCondition condition) {
+    MemberSearchPredicates.Arguments arguments = searchPredicates.bind(condition);
+    if (arguments.matchesNothing()) {
+      return new ArrayList<>(); // 없는 팀이거나 맞는 이름이 없으면 조회할 필요가 없다.
+    }
+    if (arguments.usesLike()) {
+      return search(condition); // 인덱스로 못 찾는 조건은 like 로 조회한다.
+    }
+
+    // JPAQueryFactory 를 거치지 않으므로 메트릭을 직접 남긴다.
+    return queryMetrics.record("fetch", () -> searchTemplates.fetch(em, arguments), List::size);
   }
 
-  private BooleanExpression teamNameEq(String teamName) {
-    return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+  /**
+   * searchByTemplate 결과를 MemberSearchCache 에 두고 재사용한다.
+   * member / team 이 바뀐 트랜잭션이 커밋되거나 expire-after-write 가 지나면 다시 조회한다.
+   * 커밋 직후 비운 캐시를 replica 의 이전 데이터로 다시 채우지 않도록 primary 에서 읽는다.
+   * 새 트랜잭션이므로 트랜잭션 안에서 호출하면 커넥션을 하나 더 잡는다.
+   */
+  public List<MemberTeamDto> searchCached(MemberSearchCondition condition) {
+    return searchCache.get(condition,
+        key -> primaryRead.execute(status -> searchByTemplate(key)));
   }
 
-  private BooleanExpression ageGoe(Integer ageGoe) {
-    return ageGoe != null ? member.age.goe(ageGoe) : null;
+  /**
+   * 결과를 List 로 한번에 올리지 않고 ScrollableResults 로 한 건씩 consumer 에 넘긴다.
+   * DTO 조회라 영속성 컨텍스트에 쌓이는 엔티티가 없으므로 비우지 않는다. (바깥 트랜잭션의 엔티티를 준영속으로 만들지 않는다)
+   */
+  @Transactional(readOnly = true)
+  public long searchStream(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+    long count = 0;
+    try (CloseableIterator<MemberTeamDto> iterator = queryFactory
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")
+        ))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(predicates(condition))
+        .orderBy(member.id.asc())
+        .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+        .iterate()) {
+      while (iterator.hasNext()) {
+        consumer.accept(iterator.next());
+        count++;
+      }
+    }
+    return count;
   }
 
-  private BooleanExpression ageLoe(Integer ageLoe) {
-    return ageLoe != null ? member.age.loe(ageLoe) : null;
+  /**
+   * 검색 조건의 where 절. 정의는 MemberSearchPredicates 하나뿐이다. (searchByTemplate 의 JPQL 도 같은 정의로 만든다)
+   */
+  private BooleanExpression[] predicates(MemberSearchCondition condition) {
+    return searchPredicates.of(condition);
   }
 }
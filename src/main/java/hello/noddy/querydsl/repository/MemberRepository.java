@@ -1,11 +1,26 @@
 package hello.noddy.querydsl.repository;
 
+import hello.noddy.querydsl.dto.MemberDto;
 import hello.noddy.querydsl.entity.Member;
 import java.util.List;
+import javax.persistence.QueryHint;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
   // select m from Member m where m.username = ?
   List<Member> findByUsername(String username);
+
+  // findByUsername 의 조회 전용 버전. 엔티티를 만들지 않고 DTO 로 바로 받는다.
+  @Transactional(readOnly = true)
+  @Query("select new hello.noddy.querydsl.dto.MemberDto(m.username, m.age)"
+      + " from Member m where m.username = :username")
+  @org.springframework.data.jpa.repository.QueryHints({
+      @QueryHint(name = QueryHints.HINT_READONLY, value = "true"),
+      @QueryHint(name = QueryHints.HINT_FLUSH_MODE, value = "MANUAL")
+  })
+  List<MemberDto> findDtoByUsername(String username);
 }
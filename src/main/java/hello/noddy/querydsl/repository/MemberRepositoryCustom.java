@@ -1,10 +1,12 @@
 package hello.noddy.querydsl.repository;
 
+import hello.noddy.querydsl.dto.MemberCursor;
 import hello.noddy.querydsl.dto.MemberSearchCondition;
 import hello.noddy.querydsl.dto.MemberTeamDto;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface MemberRepositoryCustom {
 
@@ -13,4 +15,18 @@ public interface MemberRepositoryCustom {
   Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
   Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+  /**
+   * 조건에 맞는 회원이 하나라도 있는지. 건수를 세지 않고 첫 행을 찾으면 멈춘다.
+   */
+  boolean existsBy(MemberSearchCondition condition);
+
+  /**
+   * searchPageComplex 의 content / count 쿼리. 따로 실행할 수 있도록 나눠서 연다. (MemberAsyncSearch)
+   */
+  List<MemberTeamDto> searchContent(MemberSearchCondition condition, Pageable pageable);
+
+  long searchCount(MemberSearchCondition condition);
+
+  Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, MemberCursor cursor, int size);
 }
@@ -3,28 +3,34 @@ package hello.noddy.querydsl.repository;
 import static hello.noddy.querydsl.entity.QMember.member;
 import static hello.noddy.querydsl.entity.QTeam.team;
 
-import com.querydsl.core.QueryResults;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.MemberCursor;
 import hello.noddy.querydsl.dto.MemberSearchCondition;
 import hello.noddy.querydsl.dto.MemberTeamDto;
 import hello.noddy.querydsl.dto.QMemberTeamDto;
-import hello.noddy.querydsl.entity.Member;
 import java.util.List;
-import javax.persistence.EntityManager;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+// 조회만 한다. replica.enabled=true 면 replica 에서 읽는다. (ReadWriteRoutingDataSource)
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
   private final JPAQueryFactory queryFactory;
+  private final MemberSearchPredicates searchPredicates;
 
-  public MemberRepositoryImpl(EntityManager entityManager) {
-    this.queryFactory = new JPAQueryFactory(entityManager);
+  public MemberRepositoryImpl(JPAQueryFactory queryFactory, TeamIdResolver teamIdResolver,
+      UsernameIndex usernameIndex, UsernameIndexUpdater usernameIndexUpdater) {
+    this.queryFactory = queryFactory;
+    this.searchPredicates = new MemberSearchPredicates(teamIdResolver, usernameIndex,
+        usernameIndexUpdater);
   }
 
   @Override
@@ -39,18 +45,26 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         ))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(predicates(condition))
         .fetch();
   }
 
+  /**
+   * select 1 ... limit 1. team 은 조인하지 않는다.
+   */
+  @Override
+  public boolean existsBy(MemberSearchCondition condition) {
+    Integer found = queryFactory
+        .selectOne()
+        .from(member)
+        .where(predicates(condition))
+        .fetchFirst();
+    return found != null;
+  }
+
   @Override
   public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-    QueryResults<MemberTeamDto> results = queryFactory
+    List<MemberTeamDto> content = queryFactory
         .select(new QMemberTeamDto(
             member.id.as("memberId"),
             member.username,
@@ -60,25 +74,30 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         ))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(predicates(condition))
+        .orderBy(SortSpecifiers.MEMBER_TEAM.of(pageable.getSort()))
         .offset(pageable.getOffset()) // 몇번째부터 시작할 거다
         .limit(pageable.getPageSize()) // 한페이지에 몇개까지 가져올 것인지.
-        .fetchResults();
+        .fetch();
 
-    List<MemberTeamDto> content = results.getResults();
-    long total = results.getTotal();
+    // fetchResults() 는 항상 count 쿼리를 날린다. 페이지만 보고 total 을 알 수 있으면 생략한다.
+    JPAQuery<Long> countQuery = countQuery(condition);
 
-    return new PageImpl<>(content, pageable, total);
+    return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
   }
 
   @Override
   public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-    List<MemberTeamDto> results = queryFactory
+    List<MemberTeamDto> results = searchContent(condition, pageable);
+
+    JPAQuery<Long> countQuery = countQuery(condition);
+
+    return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchOne);
+  }
+
+  @Override
+  public List<MemberTeamDto> searchContent(MemberSearchCondition condition, Pageable pageable) {
+    return queryFactory
         .select(new QMemberTeamDto(
             member.id.as("memberId"),
             member.username,
@@ -88,41 +107,67 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         ))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(predicates(condition))
+        .orderBy(SortSpecifiers.MEMBER_TEAM.of(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize())
         .fetch();
+  }
 
-    JPAQuery<Member> countQuery = queryFactory
-        .select(member)
-        .from(member)
-        .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        );
-
-    return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchCount);
+  @Override
+  public long searchCount(MemberSearchCondition condition) {
+    return countQuery(condition).fetchOne();
   }
 
-  private BooleanExpression usernameEq(String username) {
-    return StringUtils.hasText(username) ? member.username.eq(username) : null;
+  /**
+   * count 쿼리는 member.count() 만 조회한다.
+   * 조건이 모두 member 컬럼에 걸리므로 team 은 조인하지 않는다.
+   */
+  private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+    return queryFactory
+        .select(member.count())
+        .from(member)
+        .where(predicates(condition));
   }
 
-  private BooleanExpression teamNameEq(String teamName) {
-    return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+  /**
+   * offset 대신 마지막으로 읽은 id 이후부터 조회한다.
+   * 앞 페이지를 읽고 버리는 비용이 없어서 몇번째 페이지든 같은 비용이 든다.
+   */
+  @Override
+  public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, MemberCursor cursor,
+      int size) {
+    List<MemberTeamDto> content = queryFactory
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")
+        ))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(idGt(cursor.getLastId()))
+        .where(predicates(condition))
+        .orderBy(member.id.asc())
+        .limit(size + 1) // 다음 페이지가 있는지 확인하기 위해 하나 더 가져온다.
+        .fetch();
+
+    boolean hasNext = content.size() > size;
+    if (hasNext) {
+      content = content.subList(0, size);
+    }
+    return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
   }
 
-  private BooleanExpression ageGoe(Integer ageGoe) {
-    return ageGoe != null ? member.age.goe(ageGoe) : null;
+  private BooleanExpression idGt(Long lastId) {
+    return lastId != null ? member.id.gt(lastId) : null;
   }
 
-  private BooleanExpression ageLoe(Integer ageLoe) {
-    return ageLoe != null ? member.age.loe(ageLoe) : null;
+  /**
+   * 검색 조건의 where 절. 정의는 MemberSearchPredicates 하나뿐이다.
+   */
+  private BooleanExpression[] predicates(MemberSearchCondition condition) {
+    return searchPredicates.of(condition);
   }
 }
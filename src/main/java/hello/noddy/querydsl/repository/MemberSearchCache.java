@@ -0,0 +1,134 @@
+package hello.noddy.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.BulkExecutedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * /v1/members 검색 결과 캐시. 빈 문자열과 null 을 같은 조건으로 보도록 정규화한 조건을 키로 쓴다.
+ * member / team 이 바뀌면 (save, dirty checking, 벌크 update / delete) 커밋 후 전체를 비운다.
+ * 조건 조합마다 어느 결과가 바뀌는지 따지지 않고 전부 비우는 대신, 트랜잭션당 한번만 비운다.
+ * 히트 / 미스는 cache.gets{cache=memberSearch, result=hit|miss} 로 본다.
+ */
+@Component
+public class MemberSearchCache {
+
+  public static final String NAME = "memberSearch";
+
+  private final Cache<MemberSearchCondition, List<MemberTeamDto>> cache;
+
+  // 비울 때마다 올린다. get 이 읽기 시작한 뒤 바뀌었으면 읽은 결과를 남기지 않는다.
+  private final AtomicLong generation = new AtomicLong();
+
+  public MemberSearchCache(MeterRegistry meterRegistry,
+      @Value("${member.search-cache.maximum-size:1000}") long maximumSize,
+      @Value("${member.search-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+  }
+
+  /**
+   * 읽는 동안 커밋되어 비워졌으면 읽은 결과는 커밋 전 데이터일 수 있으므로 돌려주기만 하고 캐시에서 뺀다.
+   */
+  public List<MemberTeamDto> get(MemberSearchCondition condition,
+      Function<MemberSearchCondition, List<MemberTeamDto>> loader) {
+    MemberSearchCondition key = normalize(condition);
+    long loadedAt = generation.get();
+    List<MemberTeamDto> result = cache.get(key,
+        k -> Collections.unmodifiableList(loader.apply(k)));
+    if (generation.get() != loadedAt) {
+      cache.asMap().remove(key, result);
+    }
+    return result;
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  @EventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    invalidateAfterCommit();
+  }
+
+  // 팀명이 바뀌면 teamName 조건 결과와 teamName 컬럼이 바뀐다.
+  @EventListener
+  public void onTeamChanged(TeamChangedEvent event) {
+    invalidateAfterCommit();
+  }
+
+  @EventListener
+  public void onBulkExecuted(BulkExecutedEvent event) {
+    if (event.getEntityType() == Member.class || event.getEntityType() == Team.class) {
+      invalidateAfterCommit();
+    }
+  }
+
+  /**
+   * 커밋 전에 비우면 다른 요청이 커밋 전 데이터를 다시 캐시에 올릴 수 있으므로 커밋 후에 비운다.
+   * 엔티티마다 이벤트가 오므로 트랜잭션당 synchronization 은 하나만 등록한다.
+   */
+  private void invalidateAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidateAll();
+      return;
+    }
+    if (TransactionSynchronizationManager.hasResource(this)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(MemberSearchCache.this);
+        if (status == STATUS_COMMITTED) {
+          invalidateAll();
+        }
+      }
+    });
+  }
+
+  // 호출하는 쪽이 조건 객체를 바꿔도 키가 바뀌지 않도록 복사한다.
+  private static MemberSearchCondition normalize(MemberSearchCondition condition) {
+    MemberSearchCondition key = new MemberSearchCondition();
+    key.setUsername(StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null);
+    key.setTeamName(StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null);
+    key.setAgeGoe(condition.getAgeGoe());
+    key.setAgeLoe(condition.getAgeLoe());
+    key.setUsernames(copyOf(condition.getUsernames()));
+    key.setTeamNames(copyOf(condition.getTeamNames()));
+    key.setUsernamePrefix(
+        StringUtils.hasText(condition.getUsernamePrefix()) ? condition.getUsernamePrefix() : null);
+    key.setUsernameContains(
+        StringUtils.hasText(condition.getUsernameContains()) ? condition.getUsernameContains() : null);
+    return key;
+  }
+
+  private static List<String> copyOf(List<String> values) {
+    return CollectionUtils.isEmpty(values) ? null : new ArrayList<>(values);
+  }
+}
@@ -0,0 +1,236 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 회원 검색 where 절의 유일한 정의. querydsl 검색과 모양별 JPQL (MemberSearchTemplates) 이 같은 표현식을 쓴다.
+ * 값 자리는 Param 이다. querydsl 검색은 Param 자리에 값을 상수로 넣고, 템플릿은 Param 을 JPQL 파라미터로 직렬화한다.
+ *
+ * teamName / teamNames 는 TeamIdResolver 로 찾은 팀 id 로 member.team_id 를 거르고 (team 조인 없이 인덱스를 탄다),
+ * usernamePrefix / usernameContains 는 UsernameIndex 로 찾은 회원 id 로 거른다. 인덱스로 못 찾으면 like 로 거른다.
+ * 인덱스는 커밋된 데이터만 담으므로, 현재 트랜잭션에 반영 안 된 변경이 있을 때도 like 로 거른다.
+ */
+class MemberSearchPredicates {
+
+  static final Param<String> USERNAME = new Param<>(String.class, "username");
+  @SuppressWarnings("rawtypes")
+  static final Param<Collection> TEAM_IDS = new Param<>(Collection.class, "teamIds");
+  static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+  static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+  @SuppressWarnings("rawtypes")
+  static final Param<Collection> USERNAMES = new Param<>(Collection.class, "usernames");
+  @SuppressWarnings("rawtypes")
+  static final Param<Collection> MEMBER_IDS = new Param<>(Collection.class, "memberIds");
+
+  private final TeamIdResolver teamIdResolver;
+  private final UsernameIndex usernameIndex;
+  private final UsernameIndexUpdater usernameIndexUpdater;
+
+  MemberSearchPredicates(TeamIdResolver teamIdResolver, UsernameIndex usernameIndex,
+      UsernameIndexUpdater usernameIndexUpdater) {
+    this.teamIdResolver = teamIdResolver;
+    this.usernameIndex = usernameIndex;
+    this.usernameIndexUpdater = usernameIndexUpdater;
+  }
+
+  /**
+   * UsernameIndex 없이 이름 접두사 / 부분 문자열을 항상 like 로 거른다. (PartitionedMemberRepository)
+   */
+  MemberSearchPredicates(TeamIdResolver teamIdResolver) {
+    this(teamIdResolver, null, null);
+  }
+
+  BooleanExpression[] of(MemberSearchCondition condition) {
+    return bind(condition).predicates();
+  }
+
+  Arguments bind(MemberSearchCondition condition) {
+    MemberSearchShape shape = MemberSearchShape.of(condition);
+    return arguments(condition, resolveTeamIds(condition),
+        shape.hasUsernameMatch() ? matchUsernames(condition) : null);
+  }
+
+  /**
+   * @param teamIds   팀명 조건이 있을 때 teamName, teamNames 에 모두 맞는 팀 id
+   * @param memberIds 이름 접두사 / 부분 문자열에 맞는 회원 id. null 이면 like 로 거른다.
+   */
+  static Arguments arguments(MemberSearchCondition condition, Collection<Long> teamIds,
+      Collection<Long> memberIds) {
+    MemberSearchShape shape = MemberSearchShape.of(condition);
+    Map<Param<?>, Object> values = new HashMap<>();
+    if (shape.hasUsername()) {
+      values.put(USERNAME, condition.getUsername());
+    }
+    if (shape.hasTeamName() || shape.hasTeamNames()) {
+      values.put(TEAM_IDS, teamIds);
+    }
+    if (shape.hasAgeGoe()) {
+      values.put(AGE_GOE, condition.getAgeGoe());
+    }
+    if (shape.hasAgeLoe()) {
+      values.put(AGE_LOE, condition.getAgeLoe());
+    }
+    if (shape.hasUsernames()) {
+      values.put(USERNAMES, condition.getUsernames());
+    }
+
+    List<BooleanExpression> likes = new ArrayList<>();
+    if (shape.hasUsernameMatch()) {
+      if (memberIds != null) {
+        values.put(MEMBER_IDS, memberIds);
+      } else {
+        shape = shape.withoutUsernameMatch();
+        if (StringUtils.hasText(condition.getUsernamePrefix())) {
+          likes.add(member.username.startsWith(condition.getUsernamePrefix()));
+        }
+        if (StringUtils.hasText(condition.getUsernameContains())) {
+          likes.add(member.username.contains(condition.getUsernameContains()));
+        }
+      }
+    }
+    return new Arguments(shape, values, likes);
+  }
+
+  /**
+   * shape 에 있는 조건만의 where 절. values 가 null 이면 Param 을 그대로 둔다. (템플릿용)
+   */
+  static List<BooleanExpression> where(MemberSearchShape shape, Map<Param<?>, Object> values) {
+    List<BooleanExpression> where = new ArrayList<>();
+    if (shape.hasUsername()) {
+      where.add(member.username.eq(argument(USERNAME, values)));
+    }
+    if (shape.hasTeamName() || shape.hasTeamNames()) {
+      where.add(in(member.team.id, argument(TEAM_IDS, values)));
+    }
+    if (shape.hasAgeGoe()) {
+      where.add(member.age.goe(argument(AGE_GOE, values)));
+    }
+    if (shape.hasAgeLoe()) {
+      where.add(member.age.loe(argument(AGE_LOE, values)));
+    }
+    if (shape.hasUsernames()) {
+      where.add(in(member.username, argument(USERNAMES, values)));
+    }
+    if (shape.hasUsernameMatch()) {
+      where.add(in(member.id, argument(MEMBER_IDS, values)));
+    }
+    return where;
+  }
+
+  private static BooleanExpression in(Expression<?> path, Expression<?> values) {
+    return Expressions.booleanOperation(Ops.IN, path, values);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Expression<T> argument(Param<T> param, Map<Param<?>, Object> values) {
+    return values == null ? param : Expressions.constant((T) values.get(param));
+  }
+
+  /**
+   * teamName, teamNames 에 모두 맞는 팀 id. 팀 조건이 없으면 null
+   */
+  private List<Long> resolveTeamIds(MemberSearchCondition condition) {
+    List<Long> teamIds = null;
+    if (StringUtils.hasText(condition.getTeamName())) {
+      teamIds = new ArrayList<>(teamIdResolver.findIdsByName(condition.getTeamName()));
+    }
+    if (!CollectionUtils.isEmpty(condition.getTeamNames())) {
+      List<Long> ids = teamIdResolver.findIdsByNames(condition.getTeamNames());
+      if (teamIds == null) {
+        teamIds = new ArrayList<>(ids);
+      } else {
+        teamIds.retainAll(ids);
+      }
+    }
+    return teamIds;
+  }
+
+  /**
+   * usernamePrefix, usernameContains 에 모두 맞는 회원 id. 인덱스로 찾을 수 없으면 null
+   */
+  private Set<Long> matchUsernames(MemberSearchCondition condition) {
+    if (usernameIndex == null || usernameIndexUpdater.hasPendingChanges()) {
+      return null; // 인덱스가 없거나, 자기 트랜잭션에서 쓴 회원은 인덱스에 없다.
+    }
+
+    Set<Long> ids = null;
+    if (StringUtils.hasText(condition.getUsernamePrefix())) {
+      ids = usernameIndex.findByPrefix(condition.getUsernamePrefix());
+      if (ids == null) {
+        return null;
+      }
+    }
+    if (StringUtils.hasText(condition.getUsernameContains())) {
+      Set<Long> contains = usernameIndex.findByContains(condition.getUsernameContains());
+      if (contains == null) {
+        return null;
+      }
+      if (ids == null) {
+        ids = contains;
+      } else {
+        ids.retainAll(contains);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * 조건 하나에 대해 정해진 모양과 Param 값.
+   */
+  static final class Arguments {
+
+    private final MemberSearchShape shape;
+    private final Map<Param<?>, Object> values;
+    private final List<BooleanExpression> likes;
+
+    private Arguments(MemberSearchShape shape, Map<Param<?>, Object> values,
+        List<BooleanExpression> likes) {
+      this.shape = shape;
+      this.values = values;
+      this.likes = likes;
+    }
+
+    // 인덱스로 못 찾아서 like 로 거르면 USERNAME_MATCH 가 빠진 모양
+    MemberSearchShape shape() {
+      return shape;
+    }
+
+    Object value(Param<?> param) {
+      return values.get(param);
+    }
+
+    boolean usesLike() {
+      return !likes.isEmpty();
+    }
+
+    // 없는 팀이거나 맞는 이름이 없으면 조회할 필요가 없다.
+    boolean matchesNothing() {
+      return isEmpty(TEAM_IDS) || isEmpty(MEMBER_IDS);
+    }
+
+    BooleanExpression[] predicates() {
+      List<BooleanExpression> predicates = where(shape, values);
+      predicates.addAll(likes);
+      return predicates.toArray(new BooleanExpression[0]);
+    }
+
+    private boolean isEmpty(Param<?> param) {
+      return values.containsKey(param) && ((Collection<?>) values.get(param)).isEmpty();
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import java.util.StringJoiner;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * MemberSearchCondition 에서 어떤 조건이 들어왔는지만 나타낸다. (값은 무시)
+ * 조건 7개(접두사 / 부분 문자열은 하나로 본다)가 있거나 없거나 이므로 모양은 128가지 뿐이다.
+ */
+public final class MemberSearchShape {
+
+  private static final int USERNAME = 1;
+  private static final int TEAM_NAME = 1 << 1;
+  private static final int AGE_GOE = 1 << 2;
+  private static final int AGE_LOE = 1 << 3;
+  private static final int USERNAMES = 1 << 4;
+  private static final int TEAM_NAMES = 1 << 5;
+  private static final int USERNAME_MATCH = 1 << 6;
+
+  public static final int SIZE = 1 << 7;
+
+  private static final MemberSearchShape[] SHAPES = new MemberSearchShape[SIZE];
+
+  static {
+    for (int bits = 0; bits < SIZE; bits++) {
+      SHAPES[bits] = new MemberSearchShape(bits);
+    }
+  }
+
+  private final int bits;
+
+  private MemberSearchShape(int bits) {
+    this.bits = bits;
+  }
+
+  public static MemberSearchShape of(MemberSearchCondition condition) {
+    int bits = 0;
+    if (StringUtils.hasText(condition.getUsername())) {
+      bits |= USERNAME;
+    }
+    if (StringUtils.hasText(condition.getTeamName())) {
+      bits |= TEAM_NAME;
+    }
+    if (condition.getAgeGoe() != null) {
+      bits |= AGE_GOE;
+    }
+    if (condition.getAgeLoe() != null) {
+      bits |= AGE_LOE;
+    }
+    if (!CollectionUtils.isEmpty(condition.getUsernames())) {
+      bits |= USERNAMES;
+    }
+    if (!CollectionUtils.isEmpty(condition.getTeamNames())) {
+      bits |= TEAM_NAMES;
+    }
+    if (StringUtils.hasText(condition.getUsernamePrefix())
+        || StringUtils.hasText(condition.getUsernameContains())) {
+      bits |= USERNAME_MATCH;
+    }
+    return SHAPES[bits];
+  }
+
+  public static MemberSearchShape ofBits(int bits) {
+    return SHAPES[bits];
+  }
+
+  public MemberSearchShape withoutUsernameMatch() {
+    return SHAPES[bits & ~USERNAME_MATCH];
+  }
+
+  public int bits() {
+    return bits;
+  }
+
+  public boolean hasUsername() {
+    return (bits & USERNAME) != 0;
+  }
+
+  public boolean hasTeamName() {
+    return (bits & TEAM_NAME) != 0;
+  }
+
+  public boolean hasAgeGoe() {
+    return (bits & AGE_GOE) != 0;
+  }
+
+  public boolean hasAgeLoe() {
+    return (bits & AGE_LOE) != 0;
+  }
+
+  public boolean hasUsernames() {
+    return (bits & USERNAMES) != 0;
+  }
+
+  public boolean hasTeamNames() {
+    return (bits & TEAM_NAMES) != 0;
+  }
+
+  public boolean hasUsernameMatch() {
+    return (bits & USERNAME_MATCH) != 0;
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner("+");
+    joiner.setEmptyValue("none");
+    if (hasUsername()) {
+      joiner.add("username");
+    }
+    if (hasTeamName()) {
+      joiner.add("teamName");
+    }
+    if (hasAgeGoe()) {
+      joiner.add("ageGoe");
+    }
+    if (hasAgeLoe()) {
+      joiner.add("ageLoe");
+    }
+    if (hasUsernames()) {
+      joiner.add("usernames");
+    }
+    if (hasTeamNames()) {
+      joiner.add("teamNames");
+    }
+    if (hasUsernameMatch()) {
+      joiner.add("usernameMatch");
+    }
+    return joiner.toString();
+  }
+}
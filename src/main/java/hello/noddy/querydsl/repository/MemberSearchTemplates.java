@@ -0,0 +1,82 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.dto.QMemberTeamDto;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * 검색 조건 모양(MemberSearchShape)별로 만들어 둔 JPQL.
+ * querydsl 로 매번 표현식 트리를 만들고 JPQL 로 직렬화하는 대신, 미리 직렬화한 JPQL 에 파라미터만 바인딩한다.
+ * JPQL 은 querydsl 검색과 같은 MemberSearchPredicates 로 만든 쿼리를 직렬화한 것이라 조건 정의가 따로 없다.
+ * JPQL 문자열이 모양마다 고정이라 hibernate 의 query plan cache 에서 SQL 변환 결과도 재사용된다.
+ */
+class MemberSearchTemplates {
+
+  private static final QMemberTeamDto PROJECTION = new QMemberTeamDto(
+      member.id.as("memberId"),
+      member.username,
+      member.age,
+      team.id.as("teamId"),
+      team.name.as("teamName")
+  );
+
+  private final Template[] templates = new Template[MemberSearchShape.SIZE];
+
+  MemberSearchTemplates() {
+    for (int bits = 0; bits < MemberSearchShape.SIZE; bits++) {
+      templates[bits] = new Template(MemberSearchShape.ofBits(bits));
+    }
+  }
+
+  /**
+   * arguments 는 like 로 거르지 않는 (UsernameIndex 로 찾은) 조건이어야 한다.
+   */
+  List<MemberTeamDto> fetch(EntityManager em, MemberSearchPredicates.Arguments arguments) {
+    Template template = templates[arguments.shape().bits()];
+    Query query = em.createQuery(template.jpql);
+    template.params.forEach((position, param) -> query.setParameter(position, arguments.value(param)));
+
+    // querydsl 프로젝션은 select new 가 아니라 컬럼 목록으로 직렬화되므로 DTO 는 직접 만든다.
+    List<?> rows = query.getResultList();
+    List<MemberTeamDto> result = new ArrayList<>(rows.size());
+    for (Object row : rows) {
+      result.add(PROJECTION.newInstance((Object[]) row));
+    }
+    return result;
+  }
+
+  private static class Template {
+
+    private final String jpql;
+    private final Map<Integer, Param<?>> params = new HashMap<>();
+
+    Template(MemberSearchShape shape) {
+      JPAQuery<MemberTeamDto> query = new JPAQuery<Void>()
+          .select(PROJECTION)
+          .from(member)
+          .leftJoin(member.team, team)
+          .where(MemberSearchPredicates.where(shape, null).toArray(new BooleanExpression[0]));
+
+      JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+      serializer.serialize(query.getMetadata(), false, null);
+      this.jpql = serializer.toString();
+
+      // Param 은 ?1, ?2 ... 로 직렬화된다. 조건에 상수는 없다.
+      serializer.getConstantToLabel().forEach((constant, label) ->
+          params.put(Integer.valueOf(label), (Param<?>) constant));
+    }
+  }
+}
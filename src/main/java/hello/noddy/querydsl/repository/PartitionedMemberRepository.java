@@ -0,0 +1,355 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.dto.QMemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.InvalidSearchRequestException;
+import hello.noddy.querydsl.support.PartitionProperties;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 회원을 팀 이름 해시로 N 개의 DB 에 나눠 담고, 검색은 파티션마다 querydsl 쿼리를 동시에 실행해서 합친다.
+ * 팀과 그 팀 회원은 같은 파티션에 있으므로 팀 조인과 팀명 조건은 파티션 안에서 끝나고,
+ * 팀명 조건이 있으면 해당 파티션만 조회한다. 팀이 없는 회원은 0번 파티션에 둔다.
+ *
+ * 기본 DB 와는 다른 데이터이므로 /partitioned/** 엔드포인트 (PartitionedMemberController) 에서만 쓴다.
+ * where 절은 MemberSearchPredicates 를 그대로 쓴다. 팀 id 는 파티션의 team 테이블에서 찾고,
+ * UsernameIndex 는 기본 DB 용이라 이름 접두사 / 부분 문자열은 like 로 거른다.
+ *
+ * 파티션 EntityManagerFactory 는 빈으로 등록하지 않는다. (기본 JPA 설정, 2차 캐시, 엔티티 이벤트와 무관)
+ * id 가 파티션끼리 겹치지 않도록 파티션마다 시퀀스 시작 값을 2^40 씩 띄운다.
+ */
+@Slf4j
+@Repository
+@EnableConfigurationProperties(PartitionProperties.class)
+@ConditionalOnProperty(prefix = "member.partition", name = "enabled", havingValue = "true")
+public class PartitionedMemberRepository implements DisposableBean {
+
+  private static final long ID_BLOCK = 1L << 40;
+
+  private static final Map<String, Function<MemberTeamDto, Comparable>> SORT_KEYS = Map.of(
+      "memberId", MemberTeamDto::getMemberId,
+      "username", MemberTeamDto::getUsername,
+      "age", MemberTeamDto::getAge,
+      "teamId", MemberTeamDto::getTeamId,
+      "teamName", MemberTeamDto::getTeamName
+  );
+
+  private final List<HikariDataSource> dataSources = new ArrayList<>();
+  private final List<EntityManagerFactory> partitions = new ArrayList<>();
+  private final ThreadPoolTaskExecutor executor;
+
+  public PartitionedMemberRepository(PartitionProperties properties) {
+    if (properties.getUrls().isEmpty()) {
+      throw new IllegalStateException("member.partition.urls is empty");
+    }
+
+    for (int index = 0; index < properties.getUrls().size(); index++) {
+      HikariDataSource dataSource = new HikariDataSource();
+      dataSource.setJdbcUrl(properties.getUrls().get(index));
+      dataSource.setUsername(properties.getUsername());
+      dataSource.setPassword(properties.getPassword());
+      dataSource.setMaximumPoolSize(properties.getPoolSize());
+      dataSource.setPoolName("member-partition-" + index);
+      dataSources.add(dataSource);
+      partitions.add(entityManagerFactory(index, dataSource, properties.getDdlAuto()));
+
+      if (properties.getDdlAuto().startsWith("create")) {
+        separateIds(index, dataSource);
+      }
+    }
+
+    int threads = properties.getThreads() > 0 ? properties.getThreads() : partitions.size() * 2;
+    this.executor = new ThreadPoolTaskExecutor();
+    this.executor.setCorePoolSize(threads);
+    this.executor.setMaxPoolSize(threads);
+    this.executor.setThreadNamePrefix("member-partition-");
+    this.executor.initialize();
+  }
+
+  public int partitionCount() {
+    return partitions.size();
+  }
+
+  public int partitionOf(String teamName) {
+    return teamName == null ? 0 : Math.floorMod(teamName.hashCode(), partitions.size());
+  }
+
+  /**
+   * 팀과 회원을 팀의 파티션에 한 트랜잭션으로 저장한다. team 이 null 이면 0번 파티션
+   */
+  public void save(Team team, Collection<Member> members) {
+    EntityManager em = partitions.get(partitionOf(team != null ? team.getName() : null))
+        .createEntityManager();
+    EntityTransaction tx = em.getTransaction();
+    try {
+      tx.begin();
+      if (team != null && team.getId() == null) {
+        em.persist(team);
+      }
+      for (Member member : members) {
+        em.persist(member);
+      }
+      tx.commit();
+    } catch (RuntimeException e) {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      throw e;
+    } finally {
+      em.close();
+    }
+  }
+
+  /**
+   * 모든 (또는 팀명으로 고른) 파티션의 결과를 합쳐서 member id 순으로 돌려준다.
+   */
+  public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    List<List<MemberTeamDto>> results = fanOut(condition, queryFactory -> content(queryFactory, condition)
+        .orderBy(member.id.asc())
+        .fetch());
+    return merge(results, Comparator.comparing(MemberTeamDto::getMemberId), 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * 파티션마다 같은 정렬로 앞에서 (offset + size) 건씩 읽고 k-way merge 로 한 페이지를 만든다.
+   * total 은 파티션별 count 의 합이다. 뒤 페이지일수록 파티션마다 읽는 양이 늘어난다.
+   */
+  public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+    OrderSpecifier<?>[] orders = SortSpecifiers.MEMBER_TEAM.of(pageable.getSort());
+    long limit = pageable.getOffset() + pageable.getPageSize();
+
+    List<CompletableFuture<List<MemberTeamDto>>> contents = new ArrayList<>();
+    List<CompletableFuture<Long>> counts = new ArrayList<>();
+    for (int index : targetPartitions(condition)) {
+      contents.add(supplyAsync(index, queryFactory -> content(queryFactory, condition)
+          .orderBy(orders)
+          .limit(limit)
+          .fetch()));
+      counts.add(supplyAsync(index, queryFactory -> queryFactory
+          .select(member.count())
+          .from(member)
+          .where(predicates(queryFactory, condition))
+          .fetchOne()));
+    }
+
+    List<MemberTeamDto> content = merge(join(contents), comparator(pageable.getSort()),
+        pageable.getOffset(), pageable.getPageSize());
+    long total = join(counts).stream().mapToLong(Long::longValue).sum();
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private JPAQuery<MemberTeamDto> content(JPAQueryFactory queryFactory,
+      MemberSearchCondition condition) {
+    return queryFactory
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")
+        ))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(predicates(queryFactory, condition))
+        .setHint(QueryHints.HINT_READONLY, true);
+  }
+
+  // 파티션마다 TeamIdResolver 를 그 파티션의 EntityManager 로 만든다. (쿼리 캐시는 꺼져 있다)
+  private static BooleanExpression[] predicates(JPAQueryFactory queryFactory,
+      MemberSearchCondition condition) {
+    return new MemberSearchPredicates(new TeamIdResolver(queryFactory)).of(condition);
+  }
+
+  /**
+   * 팀명 조건이 있으면 그 팀이 있는 파티션만 조회한다.
+   */
+  private Set<Integer> targetPartitions(MemberSearchCondition condition) {
+    Set<Integer> targets = new LinkedHashSet<>();
+    if (StringUtils.hasText(condition.getTeamName())) {
+      targets.add(partitionOf(condition.getTeamName()));
+      return targets;
+    }
+    if (!CollectionUtils.isEmpty(condition.getTeamNames())) {
+      condition.getTeamNames().forEach(name -> targets.add(partitionOf(name)));
+      return targets;
+    }
+    for (int index = 0; index < partitions.size(); index++) {
+      targets.add(index);
+    }
+    return targets;
+  }
+
+  private <T> List<T> fanOut(MemberSearchCondition condition, Function<JPAQueryFactory, T> query) {
+    List<CompletableFuture<T>> futures = new ArrayList<>();
+    for (int index : targetPartitions(condition)) {
+      futures.add(supplyAsync(index, query));
+    }
+    return join(futures);
+  }
+
+  // 파티션 조회는 읽기만 하므로 트랜잭션 없이 EntityManager 를 열고 닫는다.
+  private <T> CompletableFuture<T> supplyAsync(int index, Function<JPAQueryFactory, T> query) {
+    return CompletableFuture.supplyAsync(() -> {
+      EntityManager em = partitions.get(index).createEntityManager();
+      try {
+        return query.apply(new JPAQueryFactory(em));
+      } finally {
+        em.close();
+      }
+    }, executor);
+  }
+
+  private static <T> List<T> join(List<CompletableFuture<T>> futures) {
+    List<T> results = new ArrayList<>(futures.size());
+    for (CompletableFuture<T> future : futures) {
+      results.add(future.join());
+    }
+    return results;
+  }
+
+  /**
+   * 각각 comparator 순으로 정렬된 목록들을 합쳐서 offset 부터 size 건을 돌려준다.
+   */
+  static List<MemberTeamDto> merge(List<List<MemberTeamDto>> sortedLists,
+      Comparator<MemberTeamDto> comparator, long offset, int size) {
+    PriorityQueue<Head> heads = new PriorityQueue<>(
+        Math.max(1, sortedLists.size()), (a, b) -> comparator.compare(a.value(), b.value()));
+    for (List<MemberTeamDto> list : sortedLists) {
+      if (!list.isEmpty()) {
+        heads.add(new Head(list));
+      }
+    }
+
+    List<MemberTeamDto> merged = new ArrayList<>();
+    long skipped = 0;
+    while (!heads.isEmpty() && merged.size() < size) {
+      Head head = heads.poll();
+      if (skipped < offset) {
+        skipped++;
+      } else {
+        merged.add(head.value());
+      }
+      if (head.advance()) {
+        heads.add(head);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * SortSpecifiers.MEMBER_TEAM 과 같은 순서. H2 는 null 을 가장 작은 값으로 정렬한다.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static Comparator<MemberTeamDto> comparator(Sort sort) {
+    Comparator<Comparable> nullsFirst = Comparator.nullsFirst((a, b) -> a.compareTo(b));
+    Comparator<MemberTeamDto> comparator = (a, b) -> 0;
+    for (Sort.Order order : sort) {
+      Function<MemberTeamDto, Comparable> key = SORT_KEYS.get(order.getProperty());
+      if (key == null) {
+        throw new InvalidSearchRequestException("unsupported sort property: " + order.getProperty());
+      }
+      Comparator<MemberTeamDto> next = Comparator.comparing(key, nullsFirst);
+      comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+    }
+    return comparator.thenComparing(MemberTeamDto::getMemberId);
+  }
+
+  private static EntityManagerFactory entityManagerFactory(int index, HikariDataSource dataSource,
+      String ddlAuto) {
+    Map<String, Object> jpaProperties = new HashMap<>();
+    jpaProperties.put("hibernate.hbm2ddl.auto", ddlAuto);
+    jpaProperties.put("hibernate.cache.use_second_level_cache", false);
+    jpaProperties.put("hibernate.physical_naming_strategy",
+        SpringPhysicalNamingStrategy.class.getName());
+    jpaProperties.put("hibernate.implicit_naming_strategy",
+        SpringImplicitNamingStrategy.class.getName());
+    jpaProperties.put("hibernate.jdbc.batch_size", 100);
+    jpaProperties.put("hibernate.order_inserts", true);
+    jpaProperties.put("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+    jpaProperties.put("hibernate.query.in_clause_parameter_padding", true);
+
+    LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+    factory.setPersistenceUnitName("member-partition-" + index);
+    factory.setDataSource(dataSource);
+    factory.setPackagesToScan(Member.class.getPackageName());
+    factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    factory.setJpaPropertyMap(jpaProperties);
+    factory.afterPropertiesSet();
+    return factory.getObject();
+  }
+
+  // 파티션 index 의 id 는 [index * 2^40, (index + 1) * 2^40) 안에서 나온다.
+  private static void separateIds(int index, HikariDataSource dataSource) {
+    long start = index * ID_BLOCK + 1;
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("alter sequence member_seq restart with " + start);
+    jdbcTemplate.execute("alter sequence team_seq restart with " + start);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+    partitions.forEach(EntityManagerFactory::close);
+    dataSources.forEach(HikariDataSource::close);
+  }
+
+  private static class Head {
+
+    private final List<MemberTeamDto> list;
+    private int position;
+
+    Head(List<MemberTeamDto> list) {
+      this.list = list;
+    }
+
+    MemberTeamDto value() {
+      return list.get(position);
+    }
+
+    boolean advance() {
+      return ++position < list.size();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import hello.noddy.querydsl.support.InvalidSearchRequestException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Pageable 의 Sort 를 querydsl OrderSpecifier 로 바꾼다.
+ * 정렬 가능한 속성은 등록된 것만 허용하고, 같은 값끼리 페이지 경계가 흔들리지 않도록 마지막에 id 로 정렬한다.
+ */
+final class SortSpecifiers {
+
+  // 회원 검색 (member left join team)
+  static final SortSpecifiers MEMBER_TEAM = new SortSpecifiers(Map.of(
+      "memberId", member.id,
+      "username", member.username,
+      "age", member.age,
+      "teamId", team.id,
+      "teamName", team.name
+  ), member.id.asc());
+
+  static final SortSpecifiers TEAM = new SortSpecifiers(Map.of(
+      "teamId", team.id,
+      "teamName", team.name
+  ), team.id.asc());
+
+  private final Map<String, ComparableExpressionBase<?>> properties;
+  private final OrderSpecifier<?> tieBreaker;
+
+  private SortSpecifiers(Map<String, ComparableExpressionBase<?>> properties,
+      OrderSpecifier<?> tieBreaker) {
+    this.properties = properties;
+    this.tieBreaker = tieBreaker;
+  }
+
+  OrderSpecifier<?>[] of(Sort sort) {
+    List<OrderSpecifier<?>> orders = new ArrayList<>();
+    for (Sort.Order order : sort) {
+      ComparableExpressionBase<?> property = property(order);
+      orders.add(order.isAscending() ? property.asc() : property.desc());
+    }
+    orders.add(tieBreaker);
+    return orders.toArray(new OrderSpecifier[0]);
+  }
+
+  ComparableExpressionBase<?> property(Sort.Order order) {
+    ComparableExpressionBase<?> property = properties.get(order.getProperty());
+    if (property == null) {
+      throw new InvalidSearchRequestException("unsupported sort property: " + order.getProperty());
+    }
+    return property;
+  }
+}
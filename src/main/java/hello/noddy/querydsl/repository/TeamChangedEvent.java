@@ -0,0 +1,20 @@
+package hello.noddy.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Team 엔티티가 insert / update / delete 될 때 (flush 시점) 발행된다.
+ */
+@Getter
+@ToString
+public class TeamChangedEvent {
+
+  private final Long teamId;
+  private final boolean deleted;
+
+  public TeamChangedEvent(Long teamId, boolean deleted) {
+    this.teamId = teamId;
+    this.deleted = deleted;
+  }
+}
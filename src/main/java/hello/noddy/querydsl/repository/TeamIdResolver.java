@@ -0,0 +1,49 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QTeam.team;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 팀 이름으로 팀 id 를 찾는다. 팀은 거의 바뀌지 않으므로 결과를 hibernate 쿼리 캐시(team-name 영역)에 둔다.
+ * 회원 검색은 이 id 로 member.team_id 를 바로 거르므로 team 을 조인하지 않아도 된다.
+ * 팀이 추가/변경되면 hibernate 가 team 테이블 기준으로 캐시 결과를 무효화한다.
+ */
+@Repository
+public class TeamIdResolver {
+
+  public static final String CACHE_REGION = "team-name";
+
+  private final JPAQueryFactory queryFactory;
+
+  public TeamIdResolver(JPAQueryFactory queryFactory) {
+    this.queryFactory = queryFactory;
+  }
+
+  public List<Long> findIdsByName(String name) {
+    return queryFactory
+        .select(team.id)
+        .from(team)
+        .where(team.name.eq(name))
+        .setHint(QueryHints.HINT_CACHEABLE, true)
+        .setHint(QueryHints.HINT_CACHE_REGION, CACHE_REGION)
+        .fetch();
+  }
+
+  /**
+   * in 목록은 hibernate 의 in_clause_parameter_padding 으로 2의 거듭제곱 개로 맞춰진다.
+   */
+  public List<Long> findIdsByNames(Collection<String> names) {
+    return queryFactory
+        .select(team.id)
+        .from(team)
+        .where(team.name.in(names))
+        .setHint(QueryHints.HINT_CACHEABLE, true)
+        .setHint(QueryHints.HINT_CACHE_REGION, CACHE_REGION)
+        .fetch();
+  }
+}
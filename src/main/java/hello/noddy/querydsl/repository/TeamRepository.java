@@ -0,0 +1,8 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+}
@@ -0,0 +1,13 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.dto.TeamMembersDto;
+import hello.noddy.querydsl.entity.Team;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TeamRepositoryCustom {
+
+  Page<Team> findPageWithMembers(Pageable pageable);
+
+  Page<TeamMembersDto> searchPageWithMembers(Pageable pageable);
+}
@@ -0,0 +1,93 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.MemberDto;
+import hello.noddy.querydsl.dto.TeamMembersDto;
+import hello.noddy.querydsl.entity.Team;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+/**
+ * 팀과 소속 회원을 함께 읽는다.
+ * 컬렉션 fetch join 은 행이 회원 수만큼 늘어나서 DB 에서 페이징을 할 수 없으므로 (메모리 페이징)
+ * 팀 페이지를 먼저 읽고, 회원은 그 팀 id 들로 IN 쿼리 한번에 읽는다.
+ * 팀 수와 상관없이 팀 / count / 회원 세 문장이다.
+ */
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+  private final JPAQueryFactory queryFactory;
+
+  public TeamRepositoryImpl(JPAQueryFactory queryFactory) {
+    this.queryFactory = queryFactory;
+  }
+
+  /**
+   * members 는 처음 접근할 때 (DTO 변환, 직렬화) Team.members 의 @BatchSize 로 페이지 안 팀들 것을 IN 쿼리 한번에 읽는다.
+   * 그러려면 트랜잭션이나 open-in-view 안에서 접근해야 한다.
+   */
+  @Override
+  public Page<Team> findPageWithMembers(Pageable pageable) {
+    List<Team> teams = queryFactory
+        .selectFrom(team)
+        .orderBy(SortSpecifiers.TEAM.of(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize())
+        .fetch();
+
+    JPAQuery<Long> countQuery = countQuery();
+    return PageableExecutionUtils.getPage(teams, pageable, countQuery::fetchOne);
+  }
+
+  /**
+   * 엔티티 없이 DTO 로 읽는다. 회원은 팀 id IN 쿼리로 읽어서 팀별로 나눠 담는다.
+   */
+  @Override
+  public Page<TeamMembersDto> searchPageWithMembers(Pageable pageable) {
+    List<Tuple> teams = queryFactory
+        .select(team.id, team.name)
+        .from(team)
+        .orderBy(SortSpecifiers.TEAM.of(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize())
+        .fetch();
+
+    Map<Long, TeamMembersDto> content = new LinkedHashMap<>();
+    for (Tuple tuple : teams) {
+      Long teamId = tuple.get(team.id);
+      content.put(teamId, new TeamMembersDto(teamId, tuple.get(team.name)));
+    }
+
+    if (!content.isEmpty()) {
+      List<Tuple> members = queryFactory
+          .select(member.team.id, member.username, member.age)
+          .from(member)
+          .where(member.team.id.in(content.keySet()))
+          .orderBy(member.id.asc())
+          .fetch();
+      for (Tuple tuple : members) {
+        content.get(tuple.get(member.team.id)).getMembers()
+            .add(new MemberDto(tuple.get(member.username), tuple.get(member.age)));
+      }
+    }
+
+    JPAQuery<Long> countQuery = countQuery();
+    return PageableExecutionUtils.getPage(new ArrayList<>(content.values()), pageable,
+        countQuery::fetchOne);
+  }
+
+  private JPAQuery<Long> countQuery() {
+    return queryFactory
+        .select(team.count())
+        .from(team);
+  }
+}
@@ -0,0 +1,56 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.dto.TeamStatsDto;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * team_stats 가 member 집계와 같은지 주기적으로 확인하고, 다르면 전체를 다시 집계한다.
+ * 증감 반영이 빠지는 경로 (네이티브 쿼리, DB 직접 수정 등) 로 생긴 차이를 바로잡는다.
+ */
+@Slf4j
+@Component
+public class TeamStatsReconciler {
+
+  private final TeamStatsRepository teamStatsRepository;
+  private final TeamStatsUpdater teamStatsUpdater;
+
+  public TeamStatsReconciler(TeamStatsRepository teamStatsRepository,
+      TeamStatsUpdater teamStatsUpdater) {
+    this.teamStatsRepository = teamStatsRepository;
+    this.teamStatsUpdater = teamStatsUpdater;
+  }
+
+  /**
+   * @return 다른 팀 수
+   */
+  @Transactional
+  @Scheduled(fixedDelayString = "${team-stats.reconcile-interval:PT10M}",
+      initialDelayString = "${team-stats.reconcile-interval:PT10M}")
+  public int reconcile() {
+    Map<Long, TeamStatsDto> stored = teamStatsRepository.findAllRows().stream()
+        .collect(Collectors.toMap(TeamStatsDto::getTeamId, Function.identity()));
+    List<TeamStatsDto> live = teamStatsRepository.aggregate();
+
+    int mismatches = 0;
+    for (TeamStatsDto expected : live) {
+      TeamStatsDto actual = stored.remove(expected.getTeamId());
+      if (!expected.equals(actual)) {
+        log.warn("team stats mismatch: expected {}, actual {}", expected, actual);
+        mismatches++;
+      }
+    }
+    mismatches += stored.size(); // 팀이 없어진 통계
+
+    if (mismatches > 0) {
+      teamStatsUpdater.recomputeAll();
+    }
+    return mismatches;
+  }
+}
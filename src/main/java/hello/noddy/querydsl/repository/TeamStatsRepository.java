@@ -0,0 +1,83 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+import static hello.noddy.querydsl.entity.QTeamStats.teamStats;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.QTeamStatsDto;
+import hello.noddy.querydsl.dto.TeamStatsDto;
+import java.util.List;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class TeamStatsRepository {
+
+  private final JPAQueryFactory queryFactory;
+
+  public TeamStatsRepository(JPAQueryFactory queryFactory) {
+    this.queryFactory = queryFactory;
+  }
+
+  /**
+   * 미리 계산해 둔 팀 통계. 회원 수와 무관하게 팀 수만큼만 읽는다.
+   */
+  @Transactional(readOnly = true)
+  public List<TeamStatsDto> findAll() {
+    return queryFactory
+        .select(new QTeamStatsDto(
+            team.id,
+            team.name,
+            teamStats.memberCount,
+            teamStats.ageSum,
+            teamStats.minAge,
+            teamStats.maxAge
+        ))
+        .from(teamStats)
+        .join(team).on(team.id.eq(teamStats.teamId))
+        .orderBy(team.id.asc())
+        .fetch();
+  }
+
+  /**
+   * team_stats 행 그대로. 팀이 없어진 행은 teamName 이 null 이다. 통계가 맞는지 확인할 때만 쓴다.
+   */
+  @Transactional(readOnly = true)
+  public List<TeamStatsDto> findAllRows() {
+    return queryFactory
+        .select(new QTeamStatsDto(
+            teamStats.teamId,
+            team.name,
+            teamStats.memberCount,
+            teamStats.ageSum,
+            teamStats.minAge,
+            teamStats.maxAge
+        ))
+        .from(teamStats)
+        .leftJoin(team).on(team.id.eq(teamStats.teamId))
+        .orderBy(teamStats.teamId.asc())
+        .fetch();
+  }
+
+  /**
+   * member 를 지금 집계한 값. (QuerydslBasicTest.groupByTest 방식) 통계가 맞는지 확인할 때만 쓴다.
+   */
+  @Transactional(readOnly = true)
+  public List<TeamStatsDto> aggregate() {
+    return queryFactory
+        .select(new QTeamStatsDto(
+            team.id,
+            team.name,
+            member.count(),
+            member.age.sum().longValue().coalesce(0L),
+            member.age.min(),
+            member.age.max()
+        ))
+        .from(team)
+        .leftJoin(team.members, member)
+        .groupBy(team.id, team.name)
+        .orderBy(team.id.asc())
+        .fetch();
+  }
+}
@@ -0,0 +1,271 @@
+package hello.noddy.querydsl.repository;
+
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.BulkExecutedEvent;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * team_stats 를 member 변경에 맞춰 갱신한다.
+ *
+ * 트랜잭션 안의 변경을 팀별 증감으로 모아 두었다가, flush 가 끝날 때 (em.flush, 커밋 직전 flush 모두)
+ * 같은 커넥션으로 팀마다 update 한 문장씩 반영한다. 커밋 / 롤백이 member 변경과 같이 된다.
+ * - 회원 추가: 회원 수, 나이 합계, 최소 / 최대를 증감으로 반영한다.
+ * - 회원 삭제, 팀 / 나이 변경: 빠진 값이 최소 / 최대였는지 모르므로 그 팀만 다시 집계한다. (team_id, age 인덱스)
+ * - 벌크 update / delete: 어떤 팀이 바뀌었는지 모르므로 전체를 다시 집계한다.
+ *   MemberBulkRepository 는 청크마다 id 범위 안의 팀을 recomputeForBulk 로 알려주므로 그 팀만 다시 집계한다.
+ * - 팀 삭제: 그 팀의 행을 지운다.
+ * 같은 팀 행을 update 하면서 행 락을 잡으므로 동시에 같은 팀을 바꾸는 트랜잭션끼리도 증감이 섞이지 않는다.
+ */
+@Slf4j
+@Component
+public class TeamStatsUpdater implements FlushEventListener {
+
+  private static final String APPLY_DELTA = "update team_stats set"
+      + " member_count = member_count + ?, age_sum = age_sum + ?,"
+      + " min_age = least(coalesce(min_age, ?), ?), max_age = greatest(coalesce(max_age, ?), ?)"
+      + " where team_id = ?";
+  private static final String LOCK_TEAM = "update team_stats set member_count = member_count"
+      + " where team_id = ?";
+  private static final String AGGREGATE_TEAM = "select count(*), coalesce(sum(age), 0), min(age), max(age)"
+      + " from member where team_id = ?";
+  private static final String UPDATE_TEAM = "update team_stats set"
+      + " member_count = ?, age_sum = ?, min_age = ?, max_age = ? where team_id = ?";
+  private static final String INSERT_TEAM = "insert into team_stats"
+      + " (team_id, member_count, age_sum, min_age, max_age) values (?, ?, ?, ?, ?)";
+  private static final String DELETE_TEAM = "delete from team_stats where team_id = ?";
+  private static final String DELETE_ALL = "delete from team_stats";
+  private static final String INSERT_ALL = "insert into team_stats"
+      + " (team_id, member_count, age_sum, min_age, max_age)"
+      + " select t.id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)"
+      + " from team t left join member m on m.team_id = t.id group by t.id";
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final JdbcTemplate jdbcTemplate;
+
+  public TeamStatsUpdater(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  // 기본 flush 리스너 뒤에 붙어서, flush 로 나온 MemberChangedEvent 를 모두 받은 다음 실행된다.
+  @PostConstruct
+  public void register() {
+    entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class)
+        .appendListeners(EventType.FLUSH, this);
+  }
+
+  @EventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    Pending pending = pending();
+    switch (event.getType()) {
+      case INSERT:
+        pending.added(event.getNewTeamId(), event.getNewAge());
+        break;
+      case DELETE:
+        pending.recompute(event.getOldTeamId());
+        break;
+      case UPDATE:
+        if (event.getOldAge() == null) {
+          pending.recomputeAll = true; // 이전 상태를 모른다. (준영속 엔티티 update)
+        } else if (!event.getOldAge().equals(event.getNewAge())
+            || !equals(event.getOldTeamId(), event.getNewTeamId())) {
+          pending.recompute(event.getOldTeamId());
+          pending.recompute(event.getNewTeamId());
+        }
+        break;
+      default:
+        throw new IllegalStateException("unknown change type: " + event.getType());
+    }
+    flushIfNoTransaction(pending);
+  }
+
+  // 새 팀은 아직 team_stats 행이 없으므로 다시 집계해서 넣는다.
+  @EventListener
+  public void onTeamChanged(TeamChangedEvent event) {
+    Pending pending = pending();
+    if (event.isDeleted()) {
+      pending.deleted(event.getTeamId());
+    } else {
+      pending.recompute(event.getTeamId());
+    }
+    flushIfNoTransaction(pending);
+  }
+
+  @EventListener
+  public void onBulkExecuted(BulkExecutedEvent event) {
+    if (event.getEntityType() == Member.class || event.getEntityType() == Team.class) {
+      Pending pending = pending();
+      if (event.getEntityType() == Team.class || !pending.bulkScoped) {
+        pending.recomputeAll = true;
+      }
+      flushIfNoTransaction(pending);
+    }
+  }
+
+  /**
+   * 이번 트랜잭션의 member 벌크 연산이 바꿀 수 있는 팀. 알려준 뒤의 member 벌크 연산은 전체 대신 이 팀들만 다시 집계한다.
+   * 벌크 연산 전후로 모두 알려줘야 팀을 옮기는 update 의 이전 / 이후 팀이 다 들어간다.
+   */
+  public void recomputeForBulk(Collection<Long> teamIds) {
+    Pending pending = pending();
+    pending.bulkScoped = true;
+    teamIds.forEach(pending::recompute);
+  }
+
+  @Override
+  public void onFlush(FlushEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (pending != null) {
+      apply(pending);
+    }
+  }
+
+  /**
+   * member 를 지금 집계해서 team_stats 전체를 다시 만든다.
+   */
+  public void recomputeAll() {
+    jdbcTemplate.update(DELETE_ALL);
+    jdbcTemplate.update(INSERT_ALL);
+  }
+
+  private void apply(Pending pending) {
+    if (pending.recomputeAll) {
+      recomputeAll();
+    } else {
+      pending.deltas.forEach((teamId, delta) -> {
+        if (delta.recompute || !applyDelta(teamId, delta)) {
+          recompute(teamId);
+        }
+      });
+    }
+    pending.deletedTeamIds.forEach(teamId -> jdbcTemplate.update(DELETE_TEAM, teamId));
+    pending.clear();
+  }
+
+  private boolean applyDelta(Long teamId, Delta delta) {
+    int updated = jdbcTemplate.update(APPLY_DELTA,
+        delta.count, delta.ageSum, delta.minAge, delta.minAge, delta.maxAge, delta.maxAge, teamId);
+    return updated > 0;
+  }
+
+  /**
+   * 집계 전에 팀 행 락부터 잡는다. 같은 팀에 증감을 반영하고 아직 커밋하지 않은 트랜잭션이 있으면
+   * 커밋을 기다렸다가 그 결과까지 포함해서 집계한다.
+   */
+  private void recompute(Long teamId) {
+    jdbcTemplate.update(LOCK_TEAM, teamId);
+    jdbcTemplate.query(AGGREGATE_TEAM, rs -> {
+      long count = rs.getLong(1);
+      long ageSum = rs.getLong(2);
+      Integer minAge = count > 0 ? rs.getInt(3) : null;
+      Integer maxAge = count > 0 ? rs.getInt(4) : null;
+      if (jdbcTemplate.update(UPDATE_TEAM, count, ageSum, minAge, maxAge, teamId) == 0) {
+        jdbcTemplate.update(INSERT_TEAM, teamId, count, ageSum, minAge, maxAge);
+      }
+    }, teamId);
+  }
+
+  /**
+   * 트랜잭션마다 하나. 커밋 / 롤백 후에는 버린다.
+   */
+  private Pending pending() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return new Pending();
+    }
+    Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new Pending();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(TeamStatsUpdater.this);
+        }
+      });
+    }
+    return pending;
+  }
+
+  // 스프링 트랜잭션 밖이면 모아둘 곳이 없으므로 바로 반영한다.
+  private void flushIfNoTransaction(Pending pending) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      apply(pending);
+    }
+  }
+
+  private static boolean equals(Long a, Long b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static class Pending {
+
+    private final Map<Long, Delta> deltas = new HashMap<>();
+    private final Set<Long> deletedTeamIds = new HashSet<>();
+    private boolean recomputeAll;
+    private boolean bulkScoped;
+
+    void added(Long teamId, Integer age) {
+      if (teamId != null && !deletedTeamIds.contains(teamId)) {
+        deltas.computeIfAbsent(teamId, key -> new Delta()).add(age);
+      }
+    }
+
+    void recompute(Long teamId) {
+      if (teamId != null && !deletedTeamIds.contains(teamId)) {
+        deltas.computeIfAbsent(teamId, key -> new Delta()).recompute = true;
+      }
+    }
+
+    // 빈 행을 다시 만들지 않도록 그 팀에 모아둔 증감도 버린다.
+    void deleted(Long teamId) {
+      deltas.remove(teamId);
+      deletedTeamIds.add(teamId);
+    }
+
+    void clear() {
+      deltas.clear();
+      deletedTeamIds.clear();
+      recomputeAll = false;
+      bulkScoped = false;
+    }
+  }
+
+  private static class Delta {
+
+    private long count;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+    private boolean recompute;
+
+    void add(int age) {
+      count++;
+      ageSum += age;
+      minAge = minAge == null ? age : Math.min(minAge, age);
+      maxAge = maxAge == null ? age : Math.max(maxAge, age);
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package hello.noddy.querydsl.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 회원 이름 접두사 / 부분 문자열 검색용 메모리 인덱스. (id -> username)
+ * 접두사는 정렬된 이름 맵의 범위로, 부분 문자열은 3글자 단위(trigram) 역색인으로 후보를 찾는다.
+ * 찾은 id 가 maxMatches 를 넘거나 검색어가 3글자보다 짧으면 null 을 돌려주고, 호출하는 쪽은 like 로 조회한다.
+ * DB 처럼 대소문자를 구분한다.
+ */
+public class UsernameIndex {
+
+  private static final int GRAM = 3;
+
+  private final int maxMatches;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private NavigableMap<Long, String> usernames = new TreeMap<>();
+  private NavigableMap<String, Set<Long>> byUsername = new TreeMap<>();
+  private Map<String, Set<Long>> byTrigram = new HashMap<>();
+
+  // 다시 읽는 중인 작업마다 그동안 들어온 put / remove (null) 를 모은다. write lock 안에서만 다룬다.
+  private final Set<Map<Long, String>> rebuilds = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  public UsernameIndex(int maxMatches) {
+    this.maxMatches = maxMatches;
+  }
+
+  public Set<Long> findByPrefix(String prefix) {
+    lock.readLock().lock();
+    try {
+      Set<Long> ids = new HashSet<>();
+      for (Set<Long> matched : byUsername
+          .subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+        ids.addAll(matched);
+        if (ids.size() > maxMatches) {
+          return null;
+        }
+      }
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Set<Long> findByContains(String term) {
+    if (term.length() < GRAM) {
+      return null;
+    }
+
+    lock.readLock().lock();
+    try {
+      // 가장 적은 id 를 가진 trigram 으로 후보를 줄이고 실제 이름으로 확인한다.
+      Set<Long> candidates = null;
+      for (String gram : trigrams(term)) {
+        Set<Long> ids = byTrigram.get(gram);
+        if (ids == null) {
+          return new HashSet<>();
+        }
+        if (candidates == null || ids.size() < candidates.size()) {
+          candidates = ids;
+        }
+      }
+
+      Set<Long> matched = new HashSet<>();
+      for (Long id : candidates) {
+        if (usernames.get(id).contains(term)) {
+          matched.add(id);
+          if (matched.size() > maxMatches) {
+            return null;
+          }
+        }
+      }
+      return matched;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void put(Long id, String username) {
+    lock.writeLock().lock();
+    try {
+      putInternal(id, username);
+      rebuilds.forEach(changes -> changes.put(id, username));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeInternal(id);
+      rebuilds.forEach(changes -> changes.put(id, null));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * reader 가 읽은 전체로 다시 만든다. 새로 만든 뒤 바꿔 끼우므로 그동안에도 조회할 수 있다.
+   * 읽는 동안 들어온 put / remove 는 읽은 결과에 빠져 있을 수 있으므로 바꿔 끼운 뒤 다시 적용한다.
+   */
+  public void replaceAll(Supplier<Map<Long, String>> reader) {
+    Map<Long, String> changes = beginRebuild();
+    try {
+      UsernameIndex rebuilt = new UsernameIndex(maxMatches);
+      reader.get().forEach(rebuilt::put);
+
+      lock.writeLock().lock();
+      try {
+        usernames = rebuilt.usernames;
+        byUsername = rebuilt.byUsername;
+        byTrigram = rebuilt.byTrigram;
+        changes.forEach(this::putInternal);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      endRebuild(changes);
+    }
+  }
+
+  /**
+   * fromId ~ toId 의 회원만 reader 가 읽은 결과로 바꾼다. 범위 안에서 결과에 없는 회원은 지운다.
+   * 읽는 동안 들어온 put / remove 는 replaceAll 처럼 다시 적용한다.
+   */
+  public void replaceRange(long fromId, long toId, Supplier<Map<Long, String>> reader) {
+    Map<Long, String> changes = beginRebuild();
+    try {
+      Map<Long, String> members = reader.get();
+
+      lock.writeLock().lock();
+      try {
+        for (Long id : new ArrayList<>(usernames.subMap(fromId, true, toId, true).keySet())) {
+          if (!members.containsKey(id)) {
+            removeInternal(id);
+          }
+        }
+        members.forEach(this::putInternal);
+        changes.forEach(this::putInternal);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      endRebuild(changes);
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return usernames.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Map<Long, String> beginRebuild() {
+    Map<Long, String> changes = new LinkedHashMap<>();
+    lock.writeLock().lock();
+    try {
+      rebuilds.add(changes);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return changes;
+  }
+
+  private void endRebuild(Map<Long, String> changes) {
+    lock.writeLock().lock();
+    try {
+      rebuilds.remove(changes);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // username 이 null 이면 지운다.
+  private void putInternal(Long id, String username) {
+    removeInternal(id);
+    if (username != null) {
+      usernames.put(id, username);
+      byUsername.computeIfAbsent(username, key -> new HashSet<>()).add(id);
+      for (String gram : trigrams(username)) {
+        byTrigram.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+      }
+    }
+  }
+
+  private void removeInternal(Long id) {
+    String username = usernames.remove(id);
+    if (username == null) {
+      return;
+    }
+    removeFrom(byUsername, username, id);
+    for (String gram : trigrams(username)) {
+      removeFrom(byTrigram, gram, id);
+    }
+  }
+
+  private static void removeFrom(Map<String, Set<Long>> postings, String key, Long id) {
+    Set<Long> ids = postings.get(key);
+    if (ids != null) {
+      ids.remove(id);
+      if (ids.isEmpty()) {
+        postings.remove(key);
+      }
+    }
+  }
+
+  private static Set<String> trigrams(String value) {
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + GRAM <= value.length(); i++) {
+      grams.add(value.substring(i, i + GRAM));
+    }
+    return grams;
+  }
+}
@@ -0,0 +1,158 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.repository.MemberChangedEvent.Type;
+import hello.noddy.querydsl.support.BulkExecutedEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * UsernameIndex 를 member 테이블과 맞춘다.
+ * 시작할 때 전체를 읽어서 만들고, 이후에는 MemberChangedEvent 를 커밋 후에 반영한다. (롤백되면 버린다)
+ * 벌크 update / delete 는 어느 행이 바뀌었는지 모르므로 커밋 후 전체를 다시 만든다.
+ * MemberBulkRepository 는 청크마다 id 범위를 refreshForBulk 로 알려주므로 그 범위만 다시 읽는다.
+ *
+ * 인덱스에는 커밋된 데이터만 있으므로 자기 트랜잭션에서 바꾼 회원은 보이지 않는다.
+ * 검색하는 쪽은 hasPendingChanges 가 true 면 인덱스 대신 like 로 조회한다.
+ */
+@Slf4j
+@Component
+public class UsernameIndexUpdater {
+
+  private final UsernameIndex usernameIndex;
+  private final EntityManager em;
+  private final JPAQueryFactory queryFactory;
+  private final TransactionTemplate rebuildTransaction;
+
+  public UsernameIndexUpdater(UsernameIndex usernameIndex, EntityManager em,
+      JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager) {
+    this.usernameIndex = usernameIndex;
+    this.em = em;
+    this.queryFactory = queryFactory;
+
+    // 커밋 후 (afterCompletion) 에도 호출되므로 항상 새 트랜잭션에서 읽는다.
+    // 방금 커밋한 쓰기가 아직 복제되지 않았을 수 있으므로 readOnly 로 하지 않는다. (replica 가 아닌 primary 에서 읽는다)
+    this.rebuildTransaction = new TransactionTemplate(transactionManager);
+    this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.nanoTime();
+    usernameIndex.replaceAll(() -> read(null));
+    log.info("username index rebuilt: {} members in {} ms",
+        usernameIndex.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * 이번 트랜잭션의 member 벌크 연산이 바꿀 수 있는 id 범위. 알려준 뒤의 member 벌크 연산은
+   * 커밋 후 전체 대신 이 범위만 다시 읽는다.
+   */
+  public void refreshForBulk(long fromId, long toId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return; // 모아둘 곳이 없으므로 벌크 연산 후 전체를 다시 만든다.
+    }
+    Pending pending = pending();
+    pending.bulkScoped = true;
+    pending.actions.add(() -> usernameIndex.replaceRange(fromId, toId,
+        () -> read(member.id.between(fromId, toId))));
+  }
+
+  private Map<Long, String> read(Predicate condition) {
+    return rebuildTransaction.execute(status -> {
+      Map<Long, String> result = new HashMap<>();
+      for (Tuple tuple : queryFactory.select(member.id, member.username).from(member)
+          .where(condition).fetch()) {
+        result.put(tuple.get(member.id), tuple.get(member.username));
+      }
+      return result;
+    });
+  }
+
+  /**
+   * 현재 트랜잭션에 아직 인덱스에 반영되지 않은 변경이 있는지.
+   * flush 된 회원 변경은 커밋을 기다리는 작업으로, flush 전 변경은 영속성 컨텍스트의 dirty 여부로 본다. (회원 외 엔티티도 포함)
+   */
+  public boolean hasPendingChanges() {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      return false;
+    }
+    if (TransactionSynchronizationManager.getResource(this) != null) {
+      return true;
+    }
+    // readOnly 트랜잭션은 flush 하지 않으므로 쓴 것이 있어도 DB 에서 보이지 않는다.
+    return !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && em.unwrap(Session.class).isDirty();
+  }
+
+  @EventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    if (event.getType() == Type.DELETE) {
+      afterCommit(() -> usernameIndex.remove(event.getMemberId()));
+    } else {
+      afterCommit(() -> usernameIndex.put(event.getMemberId(), event.getNewUsername()));
+    }
+  }
+
+  @EventListener
+  public void onBulkExecuted(BulkExecutedEvent event) {
+    Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (event.getEntityType() == Member.class && (pending == null || !pending.bulkScoped)) {
+      afterCommit(this::rebuild);
+    }
+  }
+
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    pending().actions.add(action);
+  }
+
+  /**
+   * 트랜잭션마다 반영할 작업을 모아두고 synchronization 은 하나만 등록한다.
+   */
+  private Pending pending() {
+    Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      Pending created = new Pending();
+      TransactionSynchronizationManager.bindResource(this, created);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(UsernameIndexUpdater.this);
+          if (status == STATUS_COMMITTED) {
+            created.actions.forEach(Runnable::run);
+          }
+        }
+      });
+      pending = created;
+    }
+    return pending;
+  }
+
+  private static class Pending {
+
+    private final List<Runnable> actions = new ArrayList<>();
+    private boolean bulkScoped;
+  }
+}
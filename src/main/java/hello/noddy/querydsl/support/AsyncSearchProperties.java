@@ -0,0 +1,20 @@
+package hello.noddy.querydsl.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.async")
+public class AsyncSearchProperties {
+
+  // true 일 때만 /async/** 엔드포인트와 전용 executor 를 만든다.
+  private boolean enabled = false;
+
+  // 쿼리 하나가 커넥션 하나를 잡으므로 커넥션 풀 크기를 넘기지 않는다.
+  private int poolSize = 8;
+
+  // 다 차면 TaskRejectedException (503)
+  private int queueCapacity = 100;
+}
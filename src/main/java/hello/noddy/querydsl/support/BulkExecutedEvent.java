@@ -0,0 +1,21 @@
+package hello.noddy.querydsl.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * querydsl update / delete 가 실행된 뒤 발행된다.
+ * 벌크 연산은 영속성 컨텍스트와 엔티티 이벤트를 거치지 않으므로 캐시 등은 이 이벤트로 맞춘다.
+ */
+@Getter
+@ToString
+public class BulkExecutedEvent {
+
+  private final Class<?> entityType;
+  private final long affectedRows;
+
+  public BulkExecutedEvent(Class<?> entityType, long affectedRows) {
+    this.entityType = entityType;
+    this.affectedRows = affectedRows;
+  }
+}
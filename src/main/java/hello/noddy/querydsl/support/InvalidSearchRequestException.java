@@ -0,0 +1,16 @@
+package hello.noddy.querydsl.support;
+
+/**
+ * 요청 파라미터가 잘못됐다. (잘못된 cursor, 허용되지 않은 정렬 속성) 컨트롤러가 400 과 메시지로 응답한다.
+ * IllegalArgumentException 을 상속하지 않는다. 상속하면 리포지토리 프록시가 InvalidDataAccessApiUsageException 으로 바꾼다.
+ */
+public class InvalidSearchRequestException extends RuntimeException {
+
+  public InvalidSearchRequestException(String message) {
+    super(message);
+  }
+
+  public InvalidSearchRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,41 @@
+package hello.noddy.querydsl.support;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.List;
+import javax.persistence.EntityManager;
+
+/**
+ * 결과를 가져오는 메서드마다 QueryMetrics 로 시간과 건수를 기록하는 JPAQuery.
+ */
+public class MeteredJPAQuery<T> extends JPAQuery<T> {
+
+  private final QueryMetrics metrics;
+
+  public MeteredJPAQuery(EntityManager entityManager, QueryMetrics metrics) {
+    super(entityManager);
+    this.metrics = metrics;
+  }
+
+  @Override
+  public List<T> fetch() {
+    return metrics.record("fetch", super::fetch, List::size);
+  }
+
+  @Override
+  public T fetchOne() throws NonUniqueResultException {
+    return metrics.record("fetchOne", super::fetchOne, result -> result != null ? 1 : 0);
+  }
+
+  @Override
+  public long fetchCount() {
+    return metrics.record("fetchCount", super::fetchCount, count -> 1);
+  }
+
+  @Override
+  public QueryResults<T> fetchResults() {
+    return metrics.record("fetchResults", super::fetchResults,
+        results -> results.getResults().size());
+  }
+}
@@ -0,0 +1,58 @@
+package hello.noddy.querydsl.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import javax.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * select / update / delete 가 모두 메트릭을 남기도록 JPAQueryFactory 를 감싼다.
+ * selectFrom, selectOne 등은 모두 query() 를 거치므로 여기만 바꾸면 된다.
+ * update / delete 는 실행 후 BulkExecutedEvent 를 발행한다.
+ */
+public class MeteredJPAQueryFactory extends JPAQueryFactory {
+
+  private final EntityManager entityManager;
+  private final QueryMetrics metrics;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public MeteredJPAQueryFactory(EntityManager entityManager, QueryMetrics metrics,
+      ApplicationEventPublisher eventPublisher) {
+    super(entityManager);
+    this.entityManager = entityManager;
+    this.metrics = metrics;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public JPAQuery<?> query() {
+    return new MeteredJPAQuery<Void>(entityManager, metrics);
+  }
+
+  @Override
+  public JPAUpdateClause update(EntityPath<?> path) {
+    return new JPAUpdateClause(entityManager, path) {
+      @Override
+      public long execute() {
+        long affected = metrics.record("execute", super::execute, rows -> rows);
+        eventPublisher.publishEvent(new BulkExecutedEvent(path.getType(), affected));
+        return affected;
+      }
+    };
+  }
+
+  @Override
+  public JPADeleteClause delete(EntityPath<?> path) {
+    return new JPADeleteClause(entityManager, path) {
+      @Override
+      public long execute() {
+        long affected = metrics.record("execute", super::execute, rows -> rows);
+        eventPublisher.publishEvent(new BulkExecutedEvent(path.getType(), affected));
+        return affected;
+      }
+    };
+  }
+}
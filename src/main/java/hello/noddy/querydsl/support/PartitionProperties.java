@@ -0,0 +1,31 @@
+package hello.noddy.querydsl.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.partition")
+public class PartitionProperties {
+
+  // true 면 회원 검색을 파티션 DB 들에 나눠서 실행한다. (PartitionedMemberRepository)
+  private boolean enabled = false;
+
+  // 파티션마다 하나씩. 순서가 파티션 번호다.
+  private List<String> urls = new ArrayList<>();
+
+  private String username = "sa";
+
+  private String password = "";
+
+  // 파티션마다 커넥션 풀 크기
+  private int poolSize = 4;
+
+  // 파티션 쿼리를 실행하는 스레드 수. 0 이면 파티션 수 x 2
+  private int threads = 0;
+
+  private String ddlAuto = "create";
+}
@@ -0,0 +1,49 @@
+package hello.noddy.querydsl.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 쿼리 한번의 실행 시간(querydsl.query)과 결과 건수(querydsl.query.rows)를 기록한다.
+ * 태그: 리포지토리 메서드, 검색 조건 모양, 실행 방식(fetch, fetchCount, execute ...)
+ */
+public class QueryMetrics {
+
+  private final MeterRegistry registry;
+
+  public QueryMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  public <T> T record(String operation, Supplier<T> query, ToLongFunction<T> rows) {
+    QueryMetricsContext context = QueryMetricsContext.current();
+    Tags tags = Tags.of(
+        "method", context.getMethod(),
+        "shape", context.getShape(),
+        "operation", operation);
+
+    Timer.Sample sample = Timer.start(registry);
+    String outcome = "error";
+    try {
+      T result = query.get();
+      outcome = "success";
+      DistributionSummary.builder("querydsl.query.rows")
+          .tags(tags)
+          .publishPercentileHistogram()
+          .register(registry)
+          .record(rows.applyAsLong(result));
+      return result;
+    } finally {
+      sample.stop(Timer.builder("querydsl.query")
+          .tags(tags)
+          .tag("outcome", outcome)
+          .publishPercentileHistogram()
+          .publishPercentiles(0.99)
+          .register(registry));
+    }
+  }
+}
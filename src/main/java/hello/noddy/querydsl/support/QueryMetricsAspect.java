@@ -0,0 +1,46 @@
+package hello.noddy.querydsl.support;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.repository.MemberSearchShape;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 메서드 실행 동안 메서드 이름과 검색 조건 모양을 QueryMetricsContext 에 올려둔다.
+ * 이름이 *Repository* 인 타입 (스프링 데이터 리포지토리와 커스텀 구현 포함) 과 @Repository 빈만 감싼다.
+ * 같은 패키지의 캐시, 인덱스, 이벤트 리스너는 쿼리 메트릭과 관계없으므로 프록시를 만들지 않는다.
+ */
+@Aspect
+@Component
+public class QueryMetricsAspect {
+
+  @Pointcut("execution(* hello.noddy.querydsl.repository..*Repository*.*(..))"
+      + " || within(@org.springframework.stereotype.Repository hello.noddy.querydsl.repository..*)")
+  void repositoryMethods() {
+  }
+
+  @Around("repositoryMethods()")
+  public Object bindContext(ProceedingJoinPoint joinPoint) throws Throwable {
+    String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+        + "." + joinPoint.getSignature().getName();
+
+    QueryMetricsContext previous = QueryMetricsContext.enter(method, shapeOf(joinPoint.getArgs()));
+    try {
+      return joinPoint.proceed();
+    } finally {
+      QueryMetricsContext.restore(previous);
+    }
+  }
+
+  private String shapeOf(Object[] args) {
+    for (Object arg : args) {
+      if (arg instanceof MemberSearchCondition) {
+        return MemberSearchShape.of((MemberSearchCondition) arg).toString();
+      }
+    }
+    return "none";
+  }
+}
@@ -0,0 +1,49 @@
+package hello.noddy.querydsl.support;
+
+/**
+ * 지금 실행 중인 리포지토리 메서드와 검색 조건 모양. 쿼리 메트릭의 태그로 쓴다.
+ * QueryMetricsAspect 가 리포지토리 호출 동안 스레드에 묶어둔다.
+ */
+public final class QueryMetricsContext {
+
+  private static final QueryMetricsContext NONE = new QueryMetricsContext("none", "none");
+  private static final ThreadLocal<QueryMetricsContext> CURRENT = new ThreadLocal<>();
+
+  private final String method;
+  private final String shape;
+
+  private QueryMetricsContext(String method, String shape) {
+    this.method = method;
+    this.shape = shape;
+  }
+
+  public static QueryMetricsContext current() {
+    QueryMetricsContext context = CURRENT.get();
+    return context != null ? context : NONE;
+  }
+
+  /**
+   * @return 이전 context. 끝나면 restore 로 되돌린다.
+   */
+  static QueryMetricsContext enter(String method, String shape) {
+    QueryMetricsContext previous = CURRENT.get();
+    CURRENT.set(new QueryMetricsContext(method, shape));
+    return previous;
+  }
+
+  static void restore(QueryMetricsContext previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public String getShape() {
+    return shape;
+  }
+}
@@ -0,0 +1,38 @@
+package hello.noddy.querydsl.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * hibernate query plan cache 의 히트 / 미스 (hibernate.query.plan.cache{result=hit|miss}).
+ * JPQL 문자열이나 in 목록 크기가 달라질 때마다 미스가 나므로, 미스가 계속 늘면 plan 이 캐시에서 밀려나고 있는 것이다.
+ * hibernate.generate_statistics 가 켜져 있어야 값이 쌓인다.
+ */
+@Component
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+  private final Statistics statistics;
+
+  public QueryPlanCacheMetrics(EntityManagerFactory entityManagerFactory) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("hibernate.query.plan.cache", statistics,
+            Statistics::getQueryPlanCacheHitCount)
+        .tag("result", "hit")
+        .description("HQL/JPQL query plans found in the plan cache")
+        .register(registry);
+    FunctionCounter.builder("hibernate.query.plan.cache", statistics,
+            Statistics::getQueryPlanCacheMissCount)
+        .tag("result", "miss")
+        .description("HQL/JPQL query plans compiled because they were not cached")
+        .register(registry);
+  }
+}
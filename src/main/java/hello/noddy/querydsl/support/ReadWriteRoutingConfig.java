@@ -0,0 +1,60 @@
+package hello.noddy.querydsl.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.noddy.querydsl.support.ReadWriteRoutingDataSource.Route;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * replica.enabled=true 면 spring.datasource 는 primary, replica.datasource 는 replica 풀이 되고
+ * 주입되는 DataSource 는 둘 사이를 고르는 ReadWriteRoutingDataSource 다.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties(prefix = "spring.datasource.hikari")
+  HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @ConfigurationProperties(prefix = "replica.datasource")
+  HikariDataSource replicaDataSource() {
+    return new HikariDataSource();
+  }
+
+  @Bean
+  @Primary
+  DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+      @Qualifier("replicaDataSource") DataSource replica, ReplicaProperties properties) {
+    ReadWriteRoutingDataSource routing =
+        new ReadWriteRoutingDataSource(properties.getReadYourWrites());
+    routing.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+    routing.setDefaultTargetDataSource(primary);
+    routing.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  /**
+   * 기본값 (DELAYED_ACQUISITION_AND_HOLD) 이면 open-in-view 세션이 처음 얻은 커넥션을 요청 끝까지 쥐고 있어서
+   * 뒤 트랜잭션이 readOnly 여부와 다른 쪽으로 갈 수 있다. 트랜잭션이 끝날 때마다 커넥션을 돌려준다.
+   */
+  @Bean
+  HibernatePropertiesCustomizer routingConnectionHandling() {
+    return properties -> properties.put("hibernate.connection.handling_mode",
+        "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+  }
+}
@@ -0,0 +1,50 @@
+package hello.noddy.querydsl.support;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * readOnly 트랜잭션은 replica, 그 외 (쓰기 트랜잭션, 트랜잭션 밖) 는 primary 커넥션을 준다.
+ * JpaTransactionManager 는 readOnly 표시를 하기 전에 커넥션을 얻으므로 LazyConnectionDataSourceProxy 로 감싸서
+ * 첫 SQL 을 실행할 때 고르게 해야 한다.
+ *
+ * readYourWrites 가 0 보다 크면 마지막 쓰기 커밋 후 그 시간 동안은 readOnly 도 primary 로 보낸다.
+ * 쓰기 시각은 애플리케이션 전체에서 하나다. (사용자별로 구분하지 않는다)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+  public enum Route {
+    PRIMARY, REPLICA
+  }
+
+  private final long readYourWritesNanos;
+  private final AtomicLong lastWriteNanos = new AtomicLong();
+  private volatile boolean written;
+
+  public ReadWriteRoutingDataSource(Duration readYourWrites) {
+    this.readYourWritesNanos = readYourWrites.toNanos();
+  }
+
+  @Override
+  protected Route determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (readYourWritesNanos > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            lastWriteNanos.set(System.nanoTime());
+            written = true;
+          }
+        });
+      }
+      return Route.PRIMARY;
+    }
+    if (written && System.nanoTime() - lastWriteNanos.get() < readYourWritesNanos) {
+      return Route.PRIMARY;
+    }
+    return Route.REPLICA;
+  }
+}
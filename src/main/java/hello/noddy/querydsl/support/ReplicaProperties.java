@@ -0,0 +1,21 @@
+package hello.noddy.querydsl.support;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 커넥션 풀 설정 (jdbc-url, username, maximum-pool-size ...) 은 replica.datasource.* 로 HikariDataSource 에 바로 바인딩한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaProperties {
+
+  // true 면 readOnly 트랜잭션을 replica 로 보낸다. (ReadWriteRoutingDataSource)
+  private boolean enabled = false;
+
+  // 쓰기 트랜잭션이 커밋된 뒤 이 시간 동안은 readOnly 트랜잭션도 primary 에서 읽는다. 0 이면 끈다.
+  private Duration readYourWrites = Duration.ZERO;
+}
@@ -0,0 +1,8 @@
+package hello.noddy.querydsl.support;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+  public StatementBudgetExceededException(int limit, String sql) {
+    super("more than " + limit + " SQL statements in one request, next: " + sql);
+  }
+}
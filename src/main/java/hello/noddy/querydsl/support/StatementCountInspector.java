@@ -0,0 +1,16 @@
+package hello.noddy.querydsl.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * hibernate.session_factory.statement_inspector 로 등록한다.
+ * hibernate 가 직접 생성하므로 상태는 StatementCounter 의 ThreadLocal 에 둔다.
+ */
+public class StatementCountInspector implements StatementInspector {
+
+  @Override
+  public String inspect(String sql) {
+    StatementCounter.record(sql);
+    return sql;
+  }
+}
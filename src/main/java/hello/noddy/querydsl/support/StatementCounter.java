@@ -0,0 +1,83 @@
+package hello.noddy.querydsl.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 현재 스레드에서 실행된 SQL 문 수를 센다. start 로 시작한 범위(요청, 테스트) 안에서만 센다.
+ * StatementCountInspector 가 hibernate 에서 SQL 을 준비할 때마다 record 를 호출한다.
+ */
+public final class StatementCounter {
+
+  // 실행된 SQL 문은 확인용으로 앞에서부터 이만큼만 보관한다.
+  private static final int MAX_KEPT_STATEMENTS = 1000;
+
+  private static final ThreadLocal<Counter> CURRENT = new ThreadLocal<>();
+
+  private StatementCounter() {
+  }
+
+  public static void start() {
+    start(Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param limit 이 수를 넘는 SQL 이 준비되면 StatementBudgetExceededException 을 던진다.
+   */
+  public static void start(int limit) {
+    CURRENT.set(new Counter(limit));
+  }
+
+  /**
+   * @return 지금까지 센 SQL 문 수
+   */
+  public static int stop() {
+    Counter counter = CURRENT.get();
+    CURRENT.remove();
+    return counter != null ? counter.count : 0;
+  }
+
+  public static void reset() {
+    Counter counter = CURRENT.get();
+    if (counter != null) {
+      counter.count = 0;
+      counter.statements.clear();
+    }
+  }
+
+  public static int count() {
+    Counter counter = CURRENT.get();
+    return counter != null ? counter.count : 0;
+  }
+
+  public static List<String> statements() {
+    Counter counter = CURRENT.get();
+    return counter != null ? new ArrayList<>(counter.statements) : Collections.emptyList();
+  }
+
+  static void record(String sql) {
+    Counter counter = CURRENT.get();
+    if (counter == null) {
+      return;
+    }
+    counter.count++;
+    if (counter.statements.size() < MAX_KEPT_STATEMENTS) {
+      counter.statements.add(sql);
+    }
+    if (counter.count > counter.limit) {
+      throw new StatementBudgetExceededException(counter.limit, sql);
+    }
+  }
+
+  private static class Counter {
+
+    private final int limit;
+    private final List<String> statements = new ArrayList<>();
+    private int count;
+
+    Counter(int limit) {
+      this.limit = limit;
+    }
+  }
+}
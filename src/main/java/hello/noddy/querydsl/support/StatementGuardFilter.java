@@ -0,0 +1,50 @@
+package hello.noddy.querydsl.support;
+
+import hello.noddy.querydsl.support.StatementGuardProperties.Mode;
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 요청 하나에서 실행된 SQL 문 수를 세서 threshold 를 넘으면 로그를 남기거나 요청을 실패시킨다.
+ * LAZY 연관관계를 루프에서 건드리는 N+1 을 운영에서 찾기 위한 것이다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(StatementGuardProperties.class)
+@ConditionalOnProperty(prefix = "statement-guard", name = "enabled", matchIfMissing = true)
+public class StatementGuardFilter extends OncePerRequestFilter {
+
+  private final StatementGuardProperties properties;
+
+  public StatementGuardFilter(StatementGuardProperties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    if (properties.getMode() == Mode.FAIL) {
+      StatementCounter.start(properties.getThreshold());
+    } else {
+      StatementCounter.start();
+    }
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      int count = StatementCounter.stop();
+      if (count > properties.getThreshold()) {
+        log.warn("{} {} executed {} SQL statements (threshold {})",
+            request.getMethod(), request.getRequestURI(), count, properties.getThreshold());
+      }
+    }
+  }
+}
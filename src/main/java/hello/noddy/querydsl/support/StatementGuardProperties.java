@@ -0,0 +1,23 @@
+package hello.noddy.querydsl.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "statement-guard")
+public class StatementGuardProperties {
+
+  private boolean enabled = true;
+
+  // 요청 하나에서 허용하는 SQL 문 수
+  private int threshold = 20;
+
+  private Mode mode = Mode.LOG;
+
+  public enum Mode {
+    LOG, // 요청이 끝난 뒤 경고 로그
+    FAIL // 넘는 순간 StatementBudgetExceededException
+  }
+}
@@ -0,0 +1,62 @@
+package hello.noddy.querydsl;
+
+import static org.assertj.core.api.Assertions.*;
+
+import hello.noddy.querydsl.InitMember.InitMemberService;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.repository.MemberJpaRepository;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "seed.teams=0") // InitMember 는 local 프로필에서만 돌고, InitMemberService 만 쓴다.
+@Transactional
+class InitMemberTest {
+
+  @Autowired
+  InitMemberService initMemberService;
+
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @Autowired
+  Validator validator;
+
+  @Test
+  void seedWithoutTeams() {
+    assertThat(initMemberService.initTeams()).isEmpty();
+    assertThat(initMemberService.initMembers(List.of(), 0, 10)).isEqualTo(10);
+
+    List<Member> members = memberJpaRepository.findAll();
+    assertThat(members).hasSize(10);
+    assertThat(members).allSatisfy(member -> assertThat(member.getTeam()).isNull());
+  }
+
+  @Test
+  void invalidSeedProperties() {
+    SeedProperties properties = new SeedProperties();
+    assertThat(validator.validate(properties)).isEmpty();
+
+    properties.setTeams(-1);
+    assertThat(invalidProperties(properties)).containsExactly("teams");
+
+    properties.setTeams(2);
+    properties.setChunkSize(0);
+    assertThat(invalidProperties(properties)).containsExactly("chunkSize");
+
+    properties.setChunkSize(10_000);
+    properties.setMinAge(50);
+    properties.setMaxAge(10);
+    assertThat(invalidProperties(properties)).containsExactly("ageRangeValid");
+  }
+
+  private List<String> invalidProperties(SeedProperties properties) {
+    return validator.validate(properties).stream()
+        .map(violation -> violation.getPropertyPath().toString())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,124 @@
+package hello.noddy.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * perf 프로필로 인메모리 H2 위에 서버를 띄우고 /v1, /v2, /v3 에 동시에 요청을 보내서 RPS 와 p99 를 출력한다.
+ * 기본 test 태스크에서는 빠지고 ./gradlew loadTest 로 실행한다.
+ * -Dload.threads, -Dload.seconds 로 동시 요청 수와 측정 시간을 바꿀 수 있다.
+ */
+@Tag("load")
+@ActiveProfiles({"perf", "local"})
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64",
+    "seed.teams=10",
+    "seed.members-per-team=10000",
+    "seed.age-distribution=uniform"
+})
+class MemberLoadTest {
+
+  private static final int THREADS = Integer.getInteger("load.threads", 16);
+  private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+  private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+
+  @LocalServerPort
+  int port;
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+
+  @Test
+  void v1() throws Exception {
+    run("/v1/members", random -> "/v1/members?teamName=team" + (char) ('A' + random % 10)
+        + "&ageGoe=" + random % 90 + "&ageLoe=" + (random % 90 + 10));
+  }
+
+  @Test
+  void v2() throws Exception {
+    run("/v2/members", random -> "/v2/members?teamName=team" + (char) ('A' + random % 10)
+        + "&page=" + random % 50 + "&size=20");
+  }
+
+  @Test
+  void v3() throws Exception {
+    run("/v3/members", random -> "/v3/members?ageGoe=" + random % 90
+        + "&page=" + random % 50 + "&size=20&sort=age,desc");
+  }
+
+  private void run(String name, IntFunction<String> path) throws Exception {
+    drive(path, WARMUP_SECONDS);
+    long[] latencies = drive(path, SECONDS);
+
+    Arrays.sort(latencies);
+    double rps = latencies.length / (double) SECONDS;
+    double p50 = latencies[latencies.length / 2] / 1_000_000.0;
+    double p99 = latencies[(int) (latencies.length * 0.99)] / 1_000_000.0;
+    System.out.printf("%-12s threads=%d requests=%d rps=%.1f p50=%.2fms p99=%.2fms%n",
+        name, THREADS, latencies.length, rps, p50, p99);
+
+    assertThat(latencies).isNotEmpty();
+  }
+
+  /**
+   * THREADS 개 스레드가 seconds 동안 쉬지 않고 요청을 보낸다. 요청마다 걸린 시간(ns)을 돌려준다.
+   */
+  private long[] drive(IntFunction<String> path, int seconds) throws Exception {
+    long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+    AtomicInteger failures = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<List<Long>>> workers = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        workers.add(executor.submit(() -> {
+          List<Long> latencies = new ArrayList<>();
+          while (System.nanoTime() < deadline) {
+            int random = ThreadLocalRandom.current().nextInt(1_000_000);
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + path.apply(random)))
+                .GET()
+                .build();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response =
+                client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            latencies.add(System.nanoTime() - start);
+            if (response.statusCode() != 200) {
+              failures.incrementAndGet();
+            }
+          }
+          return latencies;
+        }));
+      }
+
+      List<Long> all = new ArrayList<>();
+      for (Future<List<Long>> worker : workers) {
+        all.addAll(worker.get());
+      }
+      assertThat(failures.get()).isZero();
+      return all.stream().mapToLong(Long::longValue).toArray();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
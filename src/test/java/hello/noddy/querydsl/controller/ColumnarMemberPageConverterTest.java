@@ -0,0 +1,55 @@
+package hello.noddy.querydsl.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+
+class ColumnarMemberPageConverterTest {
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  ColumnarMemberPageConverter converter = new ColumnarMemberPageConverter(objectMapper.getFactory());
+
+  @Test
+  void writeColumns() throws Exception {
+    Page<MemberTeamDto> page = new PageImpl<>(List.of(
+        new MemberTeamDto(1L, "member1", 10, 100L, "teamA"),
+        new MemberTeamDto(2L, "member2", 20, 200L, "teamB"),
+        new MemberTeamDto(3L, "member3", 30, 100L, "teamA"),
+        new MemberTeamDto(4L, "member4", 40, null, null)
+    ), PageRequest.of(1, 4), 9);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    converter.write(page, out);
+    JsonNode json = objectMapper.readTree(out.toByteArray());
+
+    assertThat(json.get("number").asInt()).isEqualTo(1);
+    assertThat(json.get("totalElements").asLong()).isEqualTo(9);
+    assertThat(json.get("totalPages").asInt()).isEqualTo(3);
+    assertThat(json.get("memberId").toString()).isEqualTo("[1,2,3,4]");
+    assertThat(json.get("username").toString())
+        .isEqualTo("[\"member1\",\"member2\",\"member3\",\"member4\"]");
+    assertThat(json.get("age").toString()).isEqualTo("[10,20,30,40]");
+    assertThat(json.get("team").toString()).isEqualTo("[0,1,0,null]");
+    assertThat(json.get("teams").toString()).isEqualTo("[[100,\"teamA\"],[200,\"teamB\"]]");
+  }
+
+  @Test
+  void onlyMemberTeamPagesWithColumnarAccept() {
+    assertThat(converter.canWrite(new ParameterizedTypeReference<Page<MemberTeamDto>>() {
+    }.getType(), PageImpl.class, ColumnarMemberPageConverter.MEDIA_TYPE)).isTrue();
+    assertThat(converter.canWrite(new ParameterizedTypeReference<Page<String>>() {
+    }.getType(), PageImpl.class, ColumnarMemberPageConverter.MEDIA_TYPE)).isFalse();
+    assertThat(converter.canWrite(new ParameterizedTypeReference<Page<MemberTeamDto>>() {
+    }.getType(), PageImpl.class, MediaType.APPLICATION_JSON)).isFalse();
+  }
+}
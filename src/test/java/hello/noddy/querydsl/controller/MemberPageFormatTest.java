@@ -0,0 +1,108 @@
+package hello.noddy.querydsl.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Accept 헤더로 회원 페이지 응답 형식을 고른다. (MemberPageFormatConfig)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberPageFormatTest {
+
+  private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  RequestMappingHandlerAdapter handlerAdapter;
+
+  @Autowired
+  MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
+  @BeforeEach
+  void before() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30));
+    em.flush();
+  }
+
+  @Test
+  void columnar() throws Exception {
+    for (String path : List.of("/v2/members", "/v3/members")) {
+      mockMvc.perform(get(path).param("sort", "age").accept(ColumnarMemberPageConverter.MEDIA_TYPE))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(ColumnarMemberPageConverter.MEDIA_TYPE))
+          .andExpect(jsonPath("$.totalElements").value(3))
+          .andExpect(jsonPath("$.username").value(List.of("member1", "member2", "member3")))
+          .andExpect(jsonPath("$.teams[0][1]").value("teamA"))
+          .andExpect(jsonPath("$.content").doesNotExist());
+    }
+  }
+
+  @Test
+  void anyAcceptIsJson() throws Exception {
+    for (String path : List.of("/v2/members", "/v3/members")) {
+      mockMvc.perform(get(path).accept(MediaType.ALL))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+          .andExpect(jsonPath("$.content.length()").value(3))
+          .andExpect(jsonPath("$.memberId").doesNotExist());
+    }
+  }
+
+  @Test
+  void smile() throws Exception {
+    byte[] body = mockMvc.perform(get("/v3/members").param("sort", "age").accept(SMILE))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(SMILE))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode json = new ObjectMapper(new SmileFactory()).readTree(body);
+    assertThat(json.get("totalElements").asLong()).isEqualTo(3);
+    assertThat(json.get("content").get(2).get("username").asText()).isEqualTo("member3");
+  }
+
+  @Test
+  void smileConverterReplacesDefault() {
+    List<HttpMessageConverter<?>> smileConverters = handlerAdapter.getMessageConverters().stream()
+        .filter(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter)
+        .collect(Collectors.toList());
+
+    assertThat(smileConverters).containsExactly(smileHttpMessageConverter);
+    SmileFactory factory = (SmileFactory) smileHttpMessageConverter.getObjectMapper().getFactory();
+    assertThat(factory.isEnabled(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)).isTrue();
+  }
+}
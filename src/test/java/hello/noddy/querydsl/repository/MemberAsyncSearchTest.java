@@ -0,0 +1,79 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 쿼리가 다른 스레드에서 실행되므로 데이터는 커밋해서 넣는다.
+ */
+@SpringBootTest(properties = "member.async.enabled=true")
+class MemberAsyncSearchTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Autowired
+  MemberAsyncSearch memberAsyncSearch;
+
+  @BeforeEach
+  void before() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      for (int i = 0; i < 100; i++) {
+        em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+      }
+    });
+  }
+
+  @AfterEach
+  void after() {
+    transactionTemplate.executeWithoutResult(status -> {
+      queryFactory.delete(member).execute();
+      queryFactory.delete(team).execute();
+    });
+  }
+
+  @Test
+  void searchPageComplexInParallel() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+    PageRequest pageRequest = PageRequest.of(1, 10, Sort.by(Sort.Order.desc("age")));
+
+    Page<MemberTeamDto> result = memberAsyncSearch.searchPageComplex(condition, pageRequest).join();
+    Page<MemberTeamDto> expected = transactionTemplate.execute(status ->
+        memberRepository.searchPageComplex(condition, pageRequest));
+
+    assertThat(result.getTotalElements()).isEqualTo(50);
+    assertThat(result.getContent()).extracting("memberId")
+        .containsExactlyElementsOf(expected.map(MemberTeamDto::getMemberId));
+  }
+}
@@ -0,0 +1,130 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.TeamStatsDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 청크마다 커밋되는 것을 보려면 트랜잭션 밖에서 호출해야 하므로 @Transactional 을 붙이지 않는다.
+ */
+@SpringBootTest
+class MemberBulkRepositoryTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  MemberBulkRepository memberBulkRepository;
+
+  @Autowired
+  TeamStatsRepository teamStatsRepository;
+
+  @Autowired
+  UsernameIndex usernameIndex;
+
+  @BeforeEach
+  void before() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      for (int i = 0; i < 250; i++) {
+        em.persist(new Member("member" + i, i % 50, teamA));
+      }
+    });
+  }
+
+  @AfterEach
+  void after() {
+    transactionTemplate.executeWithoutResult(status -> {
+      queryFactory.delete(member).execute();
+      queryFactory.delete(team).execute();
+    });
+  }
+
+  @Test
+  void addAgeInChunks() {
+    List<Long> progress = new ArrayList<>();
+
+    // 기본 청크 크기(1000)면 한 청크로 끝나므로 작게 준다.
+    long affected = memberBulkRepository.update(member.age.lt(10),
+        clause -> clause.set(member.age, member.age.add(1)), 30,
+        (lastId, maxId, affectedRows) -> progress.add(affectedRows));
+
+    assertThat(affected).isEqualTo(50);
+    assertThat(progress).hasSizeGreaterThan(1).isSorted().last().isEqualTo(50L);
+
+    Long younger = queryFactory
+        .select(member.count())
+        .from(member)
+        .where(member.age.lt(1))
+        .fetchOne();
+    assertThat(younger).isZero();
+  }
+
+  @Test
+  void deleteInChunks() {
+    long affected = memberBulkRepository.delete(member.age.goe(40), 30, BulkProgressListener.NONE);
+
+    assertThat(affected).isEqualTo(50);
+    assertThat(queryFactory.select(member.count()).from(member).fetchOne()).isEqualTo(200);
+    // 청크마다 그 id 범위만 다시 읽어서 인덱스에서도 빠진다. (member40 ~ member49 삭제)
+    assertThat(usernameIndex.findByPrefix("member4")).hasSize(1);
+  }
+
+  @Test
+  void recomputeOnlyTeamsInChunks() {
+    Long teamBId = transactionTemplate.execute(status -> {
+      Team teamB = new Team("teamB");
+      em.persist(teamB);
+      for (int i = 0; i < 10; i++) {
+        em.persist(new Member("other" + i, i, teamB));
+      }
+      return teamB.getId();
+    });
+    // teamB 는 벌크 대상 id 범위 밖이므로 다시 집계되지 않아야 한다.
+    jdbcTemplate.update("update team_stats set member_count = 999 where team_id = ?", teamBId);
+
+    memberBulkRepository.update(member.username.startsWith("member"), // teamA 회원
+        clause -> clause.set(member.age, member.age.add(1)), 30, BulkProgressListener.NONE);
+
+    List<TeamStatsDto> stats = teamStatsRepository.findAll();
+    List<TeamStatsDto> live = teamStatsRepository.aggregate();
+    assertThat(stats.get(0)).isEqualTo(live.get(0));
+    assertThat(stats.get(1).getMemberCount()).isEqualTo(999);
+  }
+
+  @Test
+  void rejectInsideTransaction() {
+    transactionTemplate.executeWithoutResult(status ->
+        assertThatThrownBy(() -> memberBulkRepository.delete(member.age.goe(40), 30,
+            BulkProgressListener.NONE))
+            .hasMessageContaining("must not run inside a transaction"));
+
+    assertThat(queryFactory.select(member.count()).from(member).fetchOne()).isEqualTo(250);
+  }
+}
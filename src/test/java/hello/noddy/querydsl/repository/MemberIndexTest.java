@@ -0,0 +1,105 @@
+package hello.noddy.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.StatementBudgetExtension;
+import hello.noddy.querydsl.support.StatementCounter;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 단일 값 검색 조건 16가지 모양에 대해 실제로 나가는 SQL 의 H2 실행 계획을 확인한다.
+ */
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementBudgetExtension.class)
+class MemberIndexTest {
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  private Long team7Id;
+
+  @BeforeEach
+  void before() {
+    List<Team> teams = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Team team = new Team("team" + i);
+      entityManager.persist(team);
+      teams.add(team);
+    }
+    for (int i = 0; i < 2000; i++) {
+      entityManager.persist(new Member("member" + i, i % 100, teams.get(i % 20)));
+    }
+    team7Id = teams.get(7).getId();
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void everyPredicateShapeUsesIndex() {
+    for (int bits = 0; bits < MemberSearchShape.SIZE; bits++) {
+      MemberSearchShape shape = MemberSearchShape.ofBits(bits);
+      if (shape.bits() == 0) {
+        continue; // 조건이 없으면 전체를 읽는게 맞다.
+      }
+      if (shape.hasUsernames() || shape.hasTeamNames() || shape.hasUsernameMatch()) {
+        continue; // in 목록은 단일 값 조건과 같은 인덱스 (member_id 는 PK) 를 쓴다. 패딩 때문에 파라미터 수가 달라서 제외
+      }
+
+      MemberSearchCondition condition = new MemberSearchCondition();
+      List<Object> params = new ArrayList<>();
+      if (shape.hasUsername()) {
+        condition.setUsername("member7");
+        params.add("member7");
+      }
+      if (shape.hasTeamName()) {
+        condition.setTeamName("team7");
+        params.add(team7Id); // 팀명은 TeamIdResolver 가 id 로 바꿔서 member.team_id 로 거른다.
+      }
+      if (shape.hasAgeGoe()) {
+        condition.setAgeGoe(90);
+        params.add(90);
+      }
+      if (shape.hasAgeLoe()) {
+        condition.setAgeLoe(95);
+        params.add(95);
+      }
+
+      StatementCounter.reset();
+      memberRepository.search(condition);
+      List<String> statements = StatementCounter.statements();
+      String sql = statements.get(statements.size() - 1);
+
+      String plan = explain(sql, params);
+
+      assertThat(plan).as("%s%n%s", shape, plan)
+          .doesNotContainIgnoringCase("MEMBER.tableScan")
+          .doesNotContainIgnoringCase("TEAM.tableScan");
+    }
+  }
+
+  private String explain(String sql, List<Object> params) {
+    // use_sql_comments 로 붙은 JPQL 주석은 떼어낸다.
+    String withoutComment = sql.replaceFirst("(?s)^\\s*/\\*.*?\\*/", "");
+    return String.join("\n",
+        jdbcTemplate.queryForList("explain " + withoutComment, String.class, params.toArray()));
+  }
+}
@@ -3,21 +3,29 @@ package hello.noddy.querydsl.repository;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import hello.noddy.querydsl.dto.MemberDto;
 import hello.noddy.querydsl.dto.MemberSearchCondition;
 import hello.noddy.querydsl.dto.MemberTeamDto;
 import hello.noddy.querydsl.entity.Member;
 import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.StatementBudgetExtension;
+import hello.noddy.querydsl.support.StatementCounter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(StatementBudgetExtension.class)
 class MemberJpaRepositoryTest {
 
   @Autowired
@@ -60,6 +68,25 @@ class MemberJpaRepositoryTest {
     assertThat(result2).containsExactly(member);
   }
 
+  @Test
+  void dtoQuerydslTest() {
+    memberJpaRepository.save(new Member("member1", 10));
+    memberJpaRepository.save(new Member("member2", 20));
+    // flush mode MANUAL 이라 DTO 조회 전에 자동으로 flush 하지 않는다.
+    entityManager.flush();
+    entityManager.clear();
+
+    List<MemberDto> result1 = memberJpaRepository.findAllDto_Querydsl();
+    assertThat(result1).extracting("username", "age")
+        .containsExactlyInAnyOrder(tuple("member1", 10), tuple("member2", 20));
+
+    List<MemberDto> result2 = memberJpaRepository.findDtoByUsername_Querydsl("member1");
+    assertThat(result2).extracting("age").containsExactly(10);
+
+    // 영속성 컨텍스트에 올라온 엔티티가 없다.
+    assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+  }
+
   @Test
   void searchTest() {
     Team teamA = new Team("teamA");
@@ -91,4 +118,92 @@ class MemberJpaRepositoryTest {
 
     assertThat(result2).extracting("username").containsExactly("member4");
   }
-}
\ No newline at end of file
+
+  @Test
+  void searchStreamTest() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    for (int i = 0; i < 50; i++) {
+      entityManager.persist(new Member("member" + i, i, teamA));
+    }
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(10);
+
+    List<MemberTeamDto> streamed = new ArrayList<>();
+    long count = memberJpaRepository.searchStream(condition, streamed::add);
+
+    assertThat(count).isEqualTo(40);
+    assertThat(entityManager.contains(teamA)).isTrue(); // 호출한 트랜잭션의 엔티티는 그대로 관리된다.
+    assertThat(streamed).extracting("username")
+        .containsExactlyInAnyOrderElementsOf(
+            memberJpaRepository.search(condition).stream()
+                .map(MemberTeamDto::getUsername)
+                .collect(Collectors.toList()));
+  }
+
+  @Test
+  void searchByTemplateTest() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    entityManager.persist(teamA);
+    entityManager.persist(teamB);
+    for (int i = 0; i < 20; i++) {
+      entityManager.persist(new Member("member" + (i % 5), i * 5, i % 2 == 0 ? teamA : teamB));
+    }
+
+    // 조건 128가지 모양 모두 querydsl 로 만든 search 와 같은 결과여야 한다.
+    for (int bits = 0; bits < MemberSearchShape.SIZE; bits++) {
+      MemberSearchShape shape = MemberSearchShape.ofBits(bits);
+      MemberSearchCondition condition = new MemberSearchCondition();
+      condition.setUsername(shape.hasUsername() ? "member1" : null);
+      condition.setTeamName(shape.hasTeamName() ? "teamB" : null);
+      condition.setAgeGoe(shape.hasAgeGoe() ? 20 : null);
+      condition.setAgeLoe(shape.hasAgeLoe() ? 70 : null);
+      condition.setUsernames(shape.hasUsernames() ? List.of("member1", "member3") : null);
+      condition.setTeamNames(shape.hasTeamNames() ? List.of("teamB", "teamC") : null);
+      condition.setUsernamePrefix(shape.hasUsernameMatch() ? "member" : null);
+
+      assertThat(MemberSearchShape.of(condition)).isSameAs(shape);
+      assertThat(memberJpaRepository.searchByTemplate(condition))
+          .as(shape.toString())
+          .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+    }
+  }
+
+  @Test
+  void saveAllTest() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    entityManager.flush();
+
+    List<Member> members = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      members.add(new Member("member" + i, i, teamA));
+    }
+
+    StatementCounter.reset();
+    memberJpaRepository.saveAll(members);
+
+    assertThat(members).allSatisfy(member -> assertThat(member.getId()).isNotNull());
+    assertThat(memberJpaRepository.findAll()).hasSize(250);
+
+    List<String> statements = StatementCounter.statements();
+    // allocationSize 50 이므로 시퀀스는 250 / 50 번만 호출된다.
+    assertThat(statements).filteredOn(sql -> sql.contains("member_seq")).hasSize(5);
+    // flush 마다 insert 가 하나의 배치로 나간다.
+    assertThat(statements).filteredOn(sql -> sql.contains("insert into member")).hasSize(3);
+  }
+
+  @Test
+  void saveAllInvalidFlushSizeTest() {
+    List<Member> members = List.of(new Member("member1", 10));
+
+    // @Repository 라 InvalidDataAccessApiUsageException 으로 바뀌어도 메시지는 그대로다.
+    assertThatThrownBy(() -> memberJpaRepository.saveAll(members, 0))
+        .hasMessageContaining("flushSize must be positive: 0");
+    assertThatThrownBy(() -> memberJpaRepository.saveAll(members, -1))
+        .hasMessageContaining("flushSize must be positive: -1");
+    assertThat(memberJpaRepository.findAll()).isEmpty();
+  }
+}
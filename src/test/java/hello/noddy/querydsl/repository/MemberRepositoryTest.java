@@ -2,22 +2,35 @@ package hello.noddy.querydsl.repository;
 
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
+import hello.noddy.querydsl.dto.MemberCursor;
+import hello.noddy.querydsl.dto.MemberDto;
 import hello.noddy.querydsl.dto.MemberSearchCondition;
 import hello.noddy.querydsl.dto.MemberTeamDto;
 import hello.noddy.querydsl.entity.Member;
 import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.InvalidSearchRequestException;
+import hello.noddy.querydsl.support.StatementBudget;
+import hello.noddy.querydsl.support.StatementBudgetExtension;
+import hello.noddy.querydsl.support.StatementCounter;
+import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(StatementBudgetExtension.class)
 class MemberRepositoryTest {
 
 
@@ -42,6 +55,9 @@ class MemberRepositoryTest {
 
     List<Member> result2 = memberRepository.findByUsername("member1");
     assertThat(result2).containsExactly(member);
+
+    List<MemberDto> result3 = memberRepository.findDtoByUsername("member1");
+    assertThat(result3).extracting("username", "age").containsExactly(tuple("member1", 10));
   }
 
   @Test
@@ -99,4 +115,177 @@ class MemberRepositoryTest {
     assertThat(result.getContent()).extracting("username")
         .containsExactly("member1", "member2", "member3");
   }
-}
\ No newline at end of file
+
+  @Test
+  void searchSliceTest() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    for (int i = 0; i < 10; i++) {
+      entityManager.persist(new Member("member" + i, i, teamA));
+    }
+    entityManager.flush();
+    entityManager.clear();
+    StatementCounter.reset();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    List<String> usernames = new ArrayList<>();
+    MemberCursor cursor = MemberCursor.first();
+    Slice<MemberTeamDto> slice;
+    do {
+      slice = memberRepository.searchSlice(condition, cursor, 3);
+      slice.getContent().forEach(dto -> usernames.add(dto.getUsername()));
+      List<MemberTeamDto> content = slice.getContent();
+      cursor = MemberCursor.decode(
+          MemberCursor.after(content.get(content.size() - 1).getMemberId()).encode());
+    } while (slice.hasNext());
+
+    assertThat(usernames).containsExactly(
+        "member0", "member1", "member2", "member3", "member4",
+        "member5", "member6", "member7", "member8", "member9");
+
+    // 깊은 페이지도 offset 없이 id 조건으로만 찾아간다.
+    assertThat(StatementCounter.statements()).hasSize(4)
+        .allSatisfy(sql -> assertThat(sql.toLowerCase()).doesNotContain("offset"));
+  }
+
+  @Test
+  void searchPageCountQueryTest() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    for (int i = 0; i < 10; i++) {
+      entityManager.persist(new Member("member" + i, i, teamA));
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    // 첫 페이지가 꽉 차면 total 을 알 수 없으므로 count 쿼리가 나간다.
+    StatementCounter.reset();
+    Page<MemberTeamDto> first = memberRepository.searchPageSimple(condition, PageRequest.of(0, 4));
+    assertThat(first.getTotalElements()).isEqualTo(10);
+    assertThat(StatementCounter.statements()).hasSize(2);
+    // 팀 조건이 없으면 count 쿼리에 조인이 없다.
+    assertThat(StatementCounter.statements().get(1).toLowerCase())
+        .contains("count(")
+        .doesNotContain("join");
+
+    StatementCounter.reset();
+    Page<MemberTeamDto> middle = memberRepository.searchPageSimple(condition, PageRequest.of(1, 4));
+    assertThat(middle.getTotalElements()).isEqualTo(10);
+    assertThat(StatementCounter.statements()).hasSize(2);
+
+    // 마지막 페이지는 offset + content 크기로 total 을 계산한다.
+    StatementCounter.reset();
+    Page<MemberTeamDto> last = memberRepository.searchPageSimple(condition, PageRequest.of(2, 4));
+    assertThat(last.getTotalElements()).isEqualTo(10);
+    assertThat(StatementCounter.statements()).hasSize(1);
+
+    // 한 페이지에 다 들어가면 count 쿼리를 생략한다.
+    StatementCounter.reset();
+    Page<MemberTeamDto> single = memberRepository.searchPageSimple(condition, PageRequest.of(0, 20));
+    assertThat(single.getTotalElements()).isEqualTo(10);
+    assertThat(StatementCounter.statements()).hasSize(1);
+
+    condition.setTeamName("teamA");
+    StatementCounter.reset();
+    Page<MemberTeamDto> byTeam = memberRepository.searchPageSimple(condition, PageRequest.of(0, 4));
+    assertThat(byTeam.getTotalElements()).isEqualTo(10);
+    // 팀 id 조회가 content, count 에 한번씩 더 나간다.
+    // (팀을 넣은 트랜잭션 안이라 쿼리 캐시가 무효화된 상태, 커밋 이후에는 캐시에서 읽는다.)
+    assertThat(StatementCounter.statements()).hasSize(4)
+        .filteredOn(sql -> sql.toLowerCase().contains("join")).isEmpty();
+  }
+
+  @Test
+  void searchPageComplexPagingTest() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    entityManager.persist(teamA);
+    entityManager.persist(teamB);
+    for (int i = 0; i < 2000; i++) {
+      entityManager.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "age"));
+
+    StatementCounter.reset();
+    Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, pageRequest);
+
+    // 전체 회원을 읽지 않고 한 페이지만 가져온다.
+    assertThat(result.getContent()).hasSize(20);
+    assertThat(result.getTotalElements()).isEqualTo(2000);
+    assertThat(result.getContent()).extracting("age").containsOnly(96);
+    assertThat(StatementCounter.statements()).hasSize(2);
+  }
+
+  @Test
+  void searchPageUnsupportedSortTest() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(0, 20, Sort.by("team.members"));
+
+    assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, pageRequest))
+        .isInstanceOf(InvalidSearchRequestException.class)
+        .hasMessageContaining("team.members");
+  }
+
+  @Test
+  void invalidCursorTest() {
+    assertThatThrownBy(() -> MemberCursor.decode("not-a-cursor"))
+        .isInstanceOf(InvalidSearchRequestException.class);
+    assertThatThrownBy(() -> MemberCursor.decode(MemberCursor.after(1L).encode() + "x"))
+        .isInstanceOf(InvalidSearchRequestException.class);
+  }
+
+  @Test
+  void existsByTest() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    for (int i = 0; i < 100; i++) {
+      entityManager.persist(new Member("member" + i, i, teamA));
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    MemberSearchCondition many = new MemberSearchCondition();
+    many.setAgeGoe(10);
+    MemberSearchCondition none = new MemberSearchCondition();
+    none.setUsername("member1");
+    none.setAgeGoe(10);
+
+    StatementCounter.reset();
+    assertThat(memberRepository.existsBy(many)).isTrue();
+    assertThat(memberRepository.existsBy(none)).isFalse();
+
+    // 건수를 세지 않고 한 행만 읽는다.
+    assertThat(StatementCounter.statements()).hasSize(2)
+        .allSatisfy(sql -> assertThat(sql).doesNotContain("count(").contains("limit"));
+  }
+
+  /**
+   * member.team 은 LAZY 라서 루프에서 팀 이름을 읽으면 팀마다 select 가 한번씩 더 나간다.
+   */
+  @Test
+  @StatementBudget(3)
+  void lazyTeamAccessTest() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    entityManager.persist(teamA);
+    entityManager.persist(teamB);
+    entityManager.persist(new Member("member1", 10, teamA));
+    entityManager.persist(new Member("member2", 20, teamA));
+    entityManager.persist(new Member("member3", 30, teamB));
+    entityManager.persist(new Member("member4", 40, teamB));
+    entityManager.flush();
+    entityManager.clear();
+    StatementCounter.reset();
+
+    List<Member> members = memberRepository.findAll();
+    for (Member member : members) {
+      assertThat(member.getTeam().getName()).isNotNull();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.StatementCounter;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 커밋 후 무효화를 보려면 테스트가 트랜잭션 밖에 있어야 하므로 @Transactional 을 붙이지 않는다.
+ */
+@SpringBootTest
+class MemberSearchCacheTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @Autowired
+  MemberSearchCache memberSearchCache;
+
+  @BeforeEach
+  void before() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      em.persist(new Member("member1", 10, teamA));
+      em.persist(new Member("member2", 20, teamA));
+    });
+    memberSearchCache.invalidateAll();
+  }
+
+  @AfterEach
+  void after() {
+    transactionTemplate.executeWithoutResult(status -> {
+      queryFactory.delete(member).execute();
+      queryFactory.delete(team).execute();
+    });
+  }
+
+  @Test
+  void cacheHitAndInvalidateOnSave() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+    condition.setUsername(""); // 빈 문자열은 null 과 같은 키
+
+    List<MemberTeamDto> first = memberJpaRepository.searchCached(condition);
+
+    StatementCounter.start();
+    MemberSearchCondition same = new MemberSearchCondition();
+    same.setTeamName("teamA");
+    List<MemberTeamDto> second = memberJpaRepository.searchCached(same);
+    assertThat(StatementCounter.stop()).isZero();
+    assertThat(second).isSameAs(first).hasSize(2);
+
+    transactionTemplate.executeWithoutResult(status -> {
+      Team teamA = queryFactory.selectFrom(team).where(team.name.eq("teamA")).fetchOne();
+      memberJpaRepository.save(new Member("member3", 30, teamA));
+    });
+
+    assertThat(memberJpaRepository.searchCached(condition)).hasSize(3);
+  }
+
+  @Test
+  void invalidateOnBulkUpdate() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(15);
+    assertThat(memberJpaRepository.searchCached(condition)).hasSize(1);
+
+    transactionTemplate.executeWithoutResult(status ->
+        queryFactory.update(member).set(member.age, member.age.add(10)).execute());
+
+    assertThat(memberJpaRepository.searchCached(condition)).hasSize(2);
+  }
+
+  @Test
+  void rollbackKeepsCache() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    List<MemberTeamDto> first = memberJpaRepository.searchCached(condition);
+
+    transactionTemplate.executeWithoutResult(status -> {
+      queryFactory.delete(member).where(member.username.eq("member1")).execute();
+      status.setRollbackOnly();
+    });
+
+    assertThat(memberJpaRepository.searchCached(condition)).isSameAs(first);
+  }
+
+  @Test
+  void loadStartedBeforeCommitIsNotCached() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    List<MemberTeamDto> loaded = memberSearchCache.get(condition, key -> {
+      List<MemberTeamDto> result = memberJpaRepository.searchByTemplate(key);
+      // 읽은 뒤 캐시에 넣기 전에 다른 트랜잭션이 커밋했다.
+      transactionTemplate.executeWithoutResult(status ->
+          memberJpaRepository.save(new Member("member3", 30)));
+      return result;
+    });
+
+    assertThat(loaded).hasSize(2);
+    assertThat(memberJpaRepository.searchCached(condition)).hasSize(3);
+  }
+}
@@ -0,0 +1,120 @@
+package hello.noddy.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+/**
+ * 인메모리 H2 3개를 파티션으로 쓴다. 컨텍스트마다 ddl-auto=create 로 테이블을 새로 만든다.
+ */
+@SpringBootTest(properties = {
+    "member.partition.enabled=true",
+    "member.partition.urls[0]=jdbc:h2:mem:partition0",
+    "member.partition.urls[1]=jdbc:h2:mem:partition1",
+    "member.partition.urls[2]=jdbc:h2:mem:partition2"
+})
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+class PartitionedMemberRepositoryTest {
+
+  @Autowired
+  PartitionedMemberRepository partitionedMemberRepository;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @BeforeEach
+  void before() {
+    for (int t = 0; t < 6; t++) {
+      Team team = new Team("team" + t);
+      List<Member> members = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        members.add(new Member("member" + t + "_" + i, (t * 7 + i) % 40, team));
+      }
+      partitionedMemberRepository.save(team, members);
+    }
+    partitionedMemberRepository.save(null, List.of(new Member("noTeam", 10)));
+  }
+
+  @Test
+  void searchMergesAllPartitions() {
+    List<MemberTeamDto> result = partitionedMemberRepository.search(new MemberSearchCondition());
+
+    assertThat(result).hasSize(121);
+    assertThat(result).isSortedAccordingTo(Comparator.comparing(MemberTeamDto::getMemberId));
+    assertThat(result.stream().map(MemberTeamDto::getMemberId).distinct()).hasSize(121);
+    // 팀 조인은 파티션 안에서 끝난다.
+    assertThat(result).filteredOn(dto -> dto.getUsername().startsWith("member3_"))
+        .extracting(MemberTeamDto::getTeamName)
+        .containsOnly("team3");
+  }
+
+  @Test
+  void searchPageMatchesSingleSortedList() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(5);
+
+    List<MemberTeamDto> expected = partitionedMemberRepository.search(condition).stream()
+        .sorted(Comparator.comparing(MemberTeamDto::getAge).reversed()
+            .thenComparing(MemberTeamDto::getUsername)
+            .thenComparing(MemberTeamDto::getMemberId))
+        .collect(Collectors.toList());
+
+    Sort sort = Sort.by(Sort.Order.desc("age"), Sort.Order.asc("username"));
+    for (int page = 0; page * 7 < expected.size(); page++) {
+      Page<MemberTeamDto> result =
+          partitionedMemberRepository.searchPage(condition, PageRequest.of(page, 7, sort));
+
+      assertThat(result.getTotalElements()).isEqualTo(expected.size());
+      assertThat(result.getContent())
+          .containsExactlyElementsOf(
+              expected.subList(page * 7, Math.min(expected.size(), page * 7 + 7)));
+    }
+  }
+
+  @Test
+  void teamNameGoesToOnePartition() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("team4");
+
+    List<MemberTeamDto> result = partitionedMemberRepository.search(condition);
+
+    assertThat(result).hasSize(20);
+    long blockStart = partitionedMemberRepository.partitionOf("team4") * (1L << 40);
+    assertThat(result).allSatisfy(dto ->
+        assertThat(dto.getMemberId()).isBetween(blockStart, blockStart + (1L << 40)));
+  }
+
+  @Test
+  void teamNamesAndUsernamePrefix() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamNames(List.of("team1", "team5", "noSuchTeam"));
+    condition.setUsernamePrefix("member5_1");
+
+    List<MemberTeamDto> result = partitionedMemberRepository.search(condition);
+
+    // member5_1, member5_10 ~ member5_19
+    assertThat(result).hasSize(11).extracting(MemberTeamDto::getTeamName).containsOnly("team5");
+  }
+
+  @Test
+  void defaultRepositoryIgnoresPartitions() {
+    // 파티션은 /partitioned/** 에서만 조회한다. 기본 DB 에는 넣지 않았다.
+    assertThat(memberRepository.search(new MemberSearchCondition())).isEmpty();
+  }
+}
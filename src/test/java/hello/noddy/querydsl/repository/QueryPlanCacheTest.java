@@ -0,0 +1,96 @@
+package hello.noddy.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.StatementBudgetExtension;
+import hello.noddy.querydsl.support.StatementCounter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * in 목록 크기가 제각각이어도 in_clause_parameter_padding 으로 SQL 과 query plan 종류가 늘지 않는다.
+ */
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementBudgetExtension.class)
+class QueryPlanCacheTest {
+
+  private static final int MAX_NAMES = 100;
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @BeforeEach
+  void before() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    for (int i = 0; i < MAX_NAMES; i++) {
+      entityManager.persist(new Member("member" + i, i, teamA));
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void planCountStaysFlat() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    Random random = new Random(42);
+
+    // 목록 크기 1 ~ 100 을 한번씩 거쳐서 나올 수 있는 plan 을 모두 만든다.
+    Set<String> sqls = new HashSet<>();
+    for (int size = 1; size <= MAX_NAMES; size++) {
+      sqls.addAll(search(condition(random, size, false)));
+      sqls.addAll(search(condition(random, size, true)));
+    }
+    // 크기 1 은 eq, 나머지는 2, 4, ... 128 개로 패딩된다. (나이 조건 유무 x 2)
+    assertThat(sqls).hasSizeLessThanOrEqualTo(2 * 8);
+
+    // 이후 아무리 다른 값이 들어와도 새 plan 이 생기지 않는다.
+    long misses = statistics.getQueryPlanCacheMissCount();
+    for (int i = 0; i < 200; i++) {
+      int size = 1 + random.nextInt(MAX_NAMES);
+      sqls.addAll(search(condition(random, size, random.nextBoolean())));
+    }
+    assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    assertThat(sqls).hasSizeLessThanOrEqualTo(2 * 8);
+  }
+
+  private MemberSearchCondition condition(Random random, int size, boolean withAge) {
+    List<String> usernames = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      usernames.add("member" + random.nextInt(MAX_NAMES * 2)); // 없는 이름도 섞는다.
+    }
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernames(usernames);
+    condition.setAgeGoe(withAge ? random.nextInt(MAX_NAMES) : null);
+    return condition;
+  }
+
+  private List<String> search(MemberSearchCondition condition) {
+    StatementCounter.reset();
+    memberRepository.search(condition);
+    return StatementCounter.statements();
+  }
+}
@@ -0,0 +1,96 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.StatementCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 쿼리 캐시는 커밋된 데이터만 담으므로 @Transactional 을 붙이지 않는다.
+ */
+@SpringBootTest
+class TeamIdResolverTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  TeamIdResolver teamIdResolver;
+
+  @BeforeEach
+  void before() {
+    transactionTemplate.executeWithoutResult(status -> {
+      em.persist(new Team("teamA"));
+      em.persist(new Team("teamB"));
+    });
+  }
+
+  @AfterEach
+  void after() {
+    transactionTemplate.executeWithoutResult(status -> queryFactory.delete(team).execute());
+  }
+
+  @Test
+  void queryCacheHit() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    // 처음 한번은 조회해서 캐시에 넣는다.
+    List<Long> ids = teamIdResolver.findIdsByName("teamA");
+    assertThat(ids).hasSize(1);
+
+    long hits = statistics.getQueryCacheHitCount();
+    StatementCounter.start();
+    assertThat(teamIdResolver.findIdsByName("teamA")).isEqualTo(ids);
+    assertThat(teamIdResolver.findIdsByName("teamA")).isEqualTo(ids);
+    assertThat(StatementCounter.stop()).isZero();
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 2);
+
+    // actuator 가 hibernate 통계를 히트 / 미스 메트릭으로 내보낸다.
+    FunctionCounter hit = meterRegistry.find("hibernate.cache.query.requests")
+        .tag("result", "hit").functionCounter();
+    FunctionCounter miss = meterRegistry.find("hibernate.cache.query.requests")
+        .tag("result", "miss").functionCounter();
+    assertThat(hit).isNotNull();
+    assertThat(miss).isNotNull();
+    assertThat(hit.count()).isGreaterThanOrEqualTo(2);
+    assertThat(miss.count()).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  void teamChangeInvalidatesQueryCache() {
+    assertThat(teamIdResolver.findIdsByNames(List.of("teamA", "teamB"))).hasSize(2);
+
+    transactionTemplate.executeWithoutResult(status -> em.persist(new Team("teamA")));
+
+    StatementCounter.start();
+    assertThat(teamIdResolver.findIdsByNames(List.of("teamA", "teamB"))).hasSize(3);
+    assertThat(StatementCounter.stop()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,84 @@
+package hello.noddy.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.noddy.querydsl.dto.MemberDto;
+import hello.noddy.querydsl.dto.TeamMembersDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.support.StatementBudgetExtension;
+import hello.noddy.querydsl.support.StatementCounter;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(StatementBudgetExtension.class)
+class TeamRepositoryTest {
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  TeamRepository teamRepository;
+
+  @BeforeEach
+  void before() {
+    for (int i = 0; i < 60; i++) {
+      Team team = new Team("team" + i);
+      entityManager.persist(team);
+      for (int j = 0; j < 3; j++) {
+        entityManager.persist(new Member("member" + i + "-" + j, j, team));
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  /**
+   * 팀 / count / 회원 IN 쿼리. 페이지에 팀이 몇 개든 세 문장이다.
+   */
+  @ParameterizedTest
+  @ValueSource(ints = {1, 10, 50})
+  void findPageWithMembers(int size) {
+    StatementCounter.reset();
+
+    Page<Team> page = teamRepository.findPageWithMembers(PageRequest.of(0, size));
+    int memberCount = 0;
+    for (Team team : page) {
+      memberCount += team.getMembers().size();
+    }
+
+    assertThat(page.getContent()).hasSize(size);
+    assertThat(page.getTotalElements()).isEqualTo(60);
+    assertThat(memberCount).isEqualTo(size * 3);
+    assertThat(StatementCounter.count()).isEqualTo(3);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 10, 20})
+  void searchPageWithMembers(int size) {
+    StatementCounter.reset();
+
+    Page<TeamMembersDto> page = teamRepository.searchPageWithMembers(
+        PageRequest.of(1, size, Sort.by(Sort.Order.desc("teamName"))));
+
+    assertThat(page.getContent()).hasSize(size);
+    assertThat(page.getTotalElements()).isEqualTo(60);
+    for (TeamMembersDto team : page) {
+      assertThat(team.getMembers()).extracting(MemberDto::getAge).containsExactly(0, 1, 2);
+      String prefix = team.getTeamName().replace("team", "member") + "-";
+      assertThat(team.getMembers()).allMatch(member -> member.getUsername().startsWith(prefix));
+    }
+    assertThat(StatementCounter.count()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,123 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.TeamStatsDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * team_stats 는 flush 시점에 같은 트랜잭션 안에서 갱신되므로 flush 후 member 집계와 비교한다.
+ */
+@SpringBootTest
+@Transactional
+class TeamStatsTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  TeamStatsRepository teamStatsRepository;
+
+  @Autowired
+  TeamStatsReconciler teamStatsReconciler;
+
+  Team teamA;
+  Team teamB;
+
+  @BeforeEach
+  void before() {
+    teamA = new Team("teamA");
+    teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(new Member("member4", 40, teamB));
+    em.flush();
+  }
+
+  @Test
+  void insert() {
+    em.persist(new Member("member5", 5, teamA));
+    em.persist(new Member("member6", 60, teamA));
+    em.flush();
+
+    List<TeamStatsDto> stats = teamStatsRepository.findAll();
+    assertThat(stats).extracting("teamName", "memberCount", "averageAge", "minAge", "maxAge")
+        .containsExactly(
+            tuple("teamA", 4L, 23.75, 5, 60),
+            tuple("teamB", 2L, 35.0, 30, 40));
+    assertThat(stats).isEqualTo(teamStatsRepository.aggregate());
+  }
+
+  @Test
+  void changeTeamAgeAndDelete() {
+    Member member1 = queryFactory.selectFrom(member).where(member.username.eq("member1")).fetchOne();
+    Member member4 = queryFactory.selectFrom(member).where(member.username.eq("member4")).fetchOne();
+    member1.setTeam(teamB); // teamA 의 최소 나이가 빠진다.
+    member4.setAge(41);
+    em.remove(queryFactory.selectFrom(member).where(member.username.eq("member2")).fetchOne());
+    em.flush();
+
+    assertThat(teamStatsRepository.findAll()).isEqualTo(teamStatsRepository.aggregate());
+    assertThat(teamStatsRepository.findAll().get(0).getMemberCount()).isZero();
+  }
+
+  @Test
+  void bulkUpdate() {
+    queryFactory.update(member).set(member.age, member.age.add(1)).execute();
+    em.flush();
+
+    assertThat(teamStatsRepository.findAll()).isEqualTo(teamStatsRepository.aggregate());
+  }
+
+  @Test
+  void reconcile() {
+    assertThat(teamStatsReconciler.reconcile()).isZero();
+
+    jdbcTemplate.update("update team_stats set member_count = 100 where team_id = ?", teamA.getId());
+    assertThat(teamStatsReconciler.reconcile()).isEqualTo(1);
+    assertThat(teamStatsReconciler.reconcile()).isZero();
+  }
+
+  @Test
+  void deleteTeam() {
+    Team teamC = new Team("teamC");
+    em.persist(teamC);
+    em.flush();
+    assertThat(teamStatsRepository.findAllRows()).hasSize(3);
+
+    em.remove(teamC);
+    em.flush();
+
+    assertThat(teamStatsRepository.findAllRows()).extracting("teamName")
+        .containsExactly("teamA", "teamB");
+    assertThat(teamStatsReconciler.reconcile()).isZero();
+  }
+
+  @Test
+  void reconcileOrphanRow() {
+    jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum) values (-1, 0, 0)");
+    assertThat(teamStatsReconciler.reconcile()).isEqualTo(1);
+    assertThat(teamStatsRepository.findAllRows()).hasSize(2);
+  }
+}
@@ -0,0 +1,112 @@
+package hello.noddy.querydsl.repository;
+
+import static hello.noddy.querydsl.entity.QMember.member;
+import static hello.noddy.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * UsernameIndex 는 커밋된 데이터만 담으므로 @Transactional 을 붙이지 않고 커밋한 뒤에 검색한다.
+ */
+@SpringBootTest
+class UsernameIndexSearchTest {
+
+  @Autowired
+  EntityManager em;
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  UsernameIndex usernameIndex;
+
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @BeforeEach
+  void before() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      for (int i = 0; i < 20; i++) {
+        em.persist(new Member((i % 2 == 0 ? "alice" : "bob") + i, i, teamA));
+      }
+    });
+  }
+
+  @AfterEach
+  void after() {
+    transactionTemplate.executeWithoutResult(status -> {
+      queryFactory.delete(member).execute();
+      queryFactory.delete(team).execute();
+    });
+  }
+
+  @Test
+  void prefixAndContainsOnCommittedData() {
+    // 커밋 후 인덱스에 반영되어 like 없이 찾는다.
+    assertThat(usernameIndex.findByPrefix("alice")).hasSize(10);
+    assertThat(usernameIndex.findByContains("ob1")).hasSize(6);
+
+    MemberSearchCondition prefix = new MemberSearchCondition();
+    prefix.setUsernamePrefix("alice1");
+    assertSearch(prefix, "alice10", "alice12", "alice14", "alice16", "alice18");
+
+    MemberSearchCondition contains = new MemberSearchCondition();
+    contains.setUsernameContains("ob1");
+    contains.setAgeGoe(15);
+    assertSearch(contains, "bob15", "bob17", "bob19");
+
+    MemberSearchCondition both = new MemberSearchCondition();
+    both.setUsernamePrefix("bob");
+    both.setUsernameContains("b1");
+    assertSearch(both, "bob1", "bob11", "bob13", "bob15", "bob17", "bob19");
+  }
+
+  @Test
+  void readOwnWritesFallsBackToLike() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernamePrefix("carol");
+
+    transactionTemplate.executeWithoutResult(status -> {
+      memberJpaRepository.save(new Member("carol1", 30));
+      // 인덱스에는 아직 없지만 같은 트랜잭션의 검색에는 보인다.
+      assertThat(usernameIndex.findByPrefix("carol")).isEmpty();
+      assertThat(memberJpaRepository.searchByTemplate(condition))
+          .extracting(MemberTeamDto::getUsername).containsExactly("carol1");
+      assertThat(memberRepository.search(condition))
+          .extracting(MemberTeamDto::getUsername).containsExactly("carol1");
+    });
+
+    assertThat(usernameIndex.findByPrefix("carol")).hasSize(1);
+  }
+
+  private void assertSearch(MemberSearchCondition condition, String... usernames) {
+    List<MemberTeamDto> byTemplate = memberJpaRepository.searchByTemplate(condition);
+    List<MemberTeamDto> byQuerydsl = memberRepository.search(condition);
+
+    assertThat(byTemplate).extracting(MemberTeamDto::getUsername)
+        .containsExactlyInAnyOrder(usernames);
+    assertThat(byQuerydsl).extracting(MemberTeamDto::getUsername)
+        .containsExactlyInAnyOrder(usernames);
+  }
+}
@@ -0,0 +1,93 @@
+package hello.noddy.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UsernameIndexTest {
+
+  UsernameIndex index;
+
+  @BeforeEach
+  void before() {
+    index = new UsernameIndex(5);
+    Map<Long, String> members = new HashMap<>();
+    members.put(1L, "alice");
+    members.put(2L, "alfred");
+    members.put(3L, "bob");
+    members.put(4L, "malice");
+    index.replaceAll(() -> members);
+  }
+
+  @Test
+  void prefix() {
+    assertThat(index.findByPrefix("al")).containsExactlyInAnyOrder(1L, 2L);
+    assertThat(index.findByPrefix("alice")).containsExactly(1L);
+    assertThat(index.findByPrefix("z")).isEmpty();
+  }
+
+  @Test
+  void contains() {
+    assertThat(index.findByContains("lic")).containsExactlyInAnyOrder(1L, 4L);
+    assertThat(index.findByContains("alice")).containsExactlyInAnyOrder(1L, 4L);
+    // trigram (ali, lic, ice) 은 모두 있지만 실제 이름에는 없다.
+    assertThat(index.findByContains("alicelic")).isEmpty();
+    assertThat(index.findByContains("xyz")).isEmpty();
+    // 3글자보다 짧으면 like 로 조회하도록 null
+    assertThat(index.findByContains("li")).isNull();
+  }
+
+  @Test
+  void putAndRemove() {
+    index.put(3L, "alicia"); // bob -> alicia
+    index.remove(1L);
+
+    assertThat(index.findByPrefix("ali")).containsExactly(3L);
+    assertThat(index.findByPrefix("bob")).isEmpty();
+    assertThat(index.findByContains("lic")).containsExactlyInAnyOrder(3L, 4L);
+    assertThat(index.size()).isEqualTo(3);
+  }
+
+  @Test
+  void replaceRange() {
+    // 2 ~ 3 만 다시 읽은 결과: 2 는 삭제, 3 은 이름 변경
+    index.replaceRange(2L, 3L, () -> Map.of(3L, "alicia"));
+
+    assertThat(index.findByPrefix("al")).containsExactlyInAnyOrder(1L, 3L);
+    assertThat(index.findByPrefix("bob")).isEmpty();
+    assertThat(index.findByPrefix("malice")).containsExactly(4L); // 범위 밖
+    assertThat(index.size()).isEqualTo(3);
+  }
+
+  @Test
+  void changesWhileRebuilding() {
+    // 읽은 뒤에 커밋된 변경이 바꿔 끼운 결과에 덮이지 않아야 한다.
+    index.replaceAll(() -> {
+      Map<Long, String> snapshot = Map.of(1L, "alice", 2L, "alfred");
+      index.put(5L, "alicia");
+      index.remove(1L);
+      return snapshot;
+    });
+    assertThat(index.findByPrefix("ali")).containsExactly(5L);
+
+    index.replaceRange(1L, 5L, () -> {
+      index.put(2L, "bob");
+      return Map.of(2L, "alfred", 5L, "alicia");
+    });
+    assertThat(index.findByPrefix("al")).containsExactly(5L);
+    assertThat(index.findByPrefix("bob")).containsExactly(2L);
+  }
+
+  @Test
+  void tooManyMatches() {
+    for (long id = 10; id < 20; id++) {
+      index.put(id, "member" + id);
+    }
+    assertThat(index.findByPrefix("member")).isNull();
+    assertThat(index.findByContains("mber")).isNull();
+    assertThat(index.findByPrefix("member15")).containsExactly(15L);
+  }
+}
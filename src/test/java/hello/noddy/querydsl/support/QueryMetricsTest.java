@@ -0,0 +1,77 @@
+package hello.noddy.querydsl.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.entity.Team;
+import hello.noddy.querydsl.repository.MemberRepository;
+import hello.noddy.querydsl.repository.MemberSearchCache;
+import hello.noddy.querydsl.repository.TeamStatsUpdater;
+import hello.noddy.querydsl.repository.UsernameIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class QueryMetricsTest {
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Autowired
+  UsernameIndex usernameIndex;
+
+  @Autowired
+  MemberSearchCache memberSearchCache;
+
+  @Autowired
+  TeamStatsUpdater teamStatsUpdater;
+
+  @Test
+  void searchRecordsTimerByMethodAndShape() {
+    Team teamA = new Team("teamA");
+    entityManager.persist(teamA);
+    entityManager.persist(new Member("member1", 10, teamA));
+    entityManager.persist(new Member("member2", 20, teamA));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+    condition.setAgeGoe(15);
+    memberRepository.search(condition);
+
+    Collection<Timer> timers = meterRegistry.find("querydsl.query")
+        .tag("shape", "teamName+ageGoe")
+        .tag("operation", "fetch")
+        .timers();
+
+    assertThat(timers).anySatisfy(timer -> {
+      assertThat(timer.getId().getTag("method")).endsWith(".search");
+      assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+    });
+    assertThat(meterRegistry.find("querydsl.query.rows")
+        .tag("shape", "teamName+ageGoe")
+        .summary()).isNotNull();
+  }
+
+  @Test
+  void onlyRepositoriesAreProxied() {
+    assertThat(AopUtils.isAopProxy(memberRepository)).isTrue();
+    assertThat(AopUtils.isAopProxy(usernameIndex)).isFalse();
+    assertThat(AopUtils.isAopProxy(memberSearchCache)).isFalse();
+    assertThat(AopUtils.isAopProxy(teamStatsUpdater)).isFalse();
+  }
+}
@@ -0,0 +1,141 @@
+package hello.noddy.querydsl.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.noddy.querydsl.dto.MemberSearchCondition;
+import hello.noddy.querydsl.dto.MemberTeamDto;
+import hello.noddy.querydsl.entity.Member;
+import hello.noddy.querydsl.repository.MemberJpaRepository;
+import hello.noddy.querydsl.repository.MemberRepository;
+import hello.noddy.querydsl.repository.MemberSearchCache;
+import hello.noddy.querydsl.repository.UsernameIndex;
+import hello.noddy.querydsl.repository.UsernameIndexUpdater;
+import hello.noddy.querydsl.support.ReadWriteRoutingDataSource.Route;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * primary 와 replica 를 서로 다른 인메모리 H2 로 띄운다. 복제는 없으므로 어느 쪽에서 읽었는지 결과로 알 수 있다.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+    "replica.enabled=true",
+    "replica.datasource.jdbc-url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;"
+        + "INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+    "replica.datasource.username=sa"
+})
+class ReadWriteRoutingDataSourceTest {
+
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  MemberSearchCache memberSearchCache;
+
+  @Autowired
+  UsernameIndex usernameIndex;
+
+  @Autowired
+  UsernameIndexUpdater usernameIndexUpdater;
+
+  @Autowired
+  @Qualifier("primaryDataSource")
+  DataSource primary;
+
+  @Autowired
+  @Qualifier("replicaDataSource")
+  DataSource replica;
+
+  @BeforeEach
+  void before() {
+    new JdbcTemplate(replica)
+        .update("insert into member (member_id, age, username) values (1, 20, 'replicaMember')");
+    memberJpaRepository.saveAll(List.of(new Member("primaryMember", 20)));
+  }
+
+  @AfterEach
+  void after() {
+    new JdbcTemplate(replica).update("delete from member");
+    new JdbcTemplate(primary).update("delete from member");
+  }
+
+  @Test
+  void writeGoesToPrimary() {
+    assertThat(new JdbcTemplate(primary).queryForList("select username from member", String.class))
+        .containsExactly("primaryMember");
+  }
+
+  @Test
+  void readOnlyGoesToReplica() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    assertThat(memberRepository.search(condition))
+        .extracting(MemberTeamDto::getUsername).containsExactly("replicaMember");
+    assertThat(memberJpaRepository.search(condition))
+        .extracting(MemberTeamDto::getUsername).containsExactly("replicaMember");
+  }
+
+  @Test
+  void readOnlyInsideWriteTransactionReadsPrimary() {
+    List<MemberTeamDto> result =
+        transactionTemplate.execute(status -> memberRepository.search(new MemberSearchCondition()));
+
+    assertThat(result).extracting(MemberTeamDto::getUsername).containsExactly("primaryMember");
+  }
+
+  @Test
+  void cacheRefillAndIndexRebuildReadPrimary() {
+    memberSearchCache.invalidateAll();
+    assertThat(memberJpaRepository.searchCached(new MemberSearchCondition()))
+        .extracting(MemberTeamDto::getUsername).containsExactly("primaryMember");
+
+    usernameIndexUpdater.rebuild();
+    assertThat(usernameIndex.findByPrefix("primary")).hasSize(1);
+    assertThat(usernameIndex.findByPrefix("replica")).isEmpty();
+  }
+
+  @Test
+  void readYourWritesWindow() {
+    ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(Duration.ofMinutes(1));
+    ReadWriteRoutingDataSource noWindow = new ReadWriteRoutingDataSource(Duration.ZERO);
+
+    assertThat(inTransaction(routing, true)).isEqualTo(Route.REPLICA);
+    assertThat(inTransaction(routing, false)).isEqualTo(Route.PRIMARY);
+    // 쓰기 커밋 직후에는 readOnly 도 primary
+    assertThat(inTransaction(routing, true)).isEqualTo(Route.PRIMARY);
+
+    assertThat(inTransaction(noWindow, false)).isEqualTo(Route.PRIMARY);
+    assertThat(inTransaction(noWindow, true)).isEqualTo(Route.REPLICA);
+  }
+
+  // 트랜잭션 매니저 없이 트랜잭션 하나를 흉내내고 커밋한다.
+  private Route inTransaction(ReadWriteRoutingDataSource routing, boolean readOnly) {
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    try {
+      Route route = routing.determineCurrentLookupKey();
+      TransactionSynchronizationUtils.triggerAfterCommit();
+      return route;
+    } finally {
+      TransactionSynchronizationManager.clear();
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package hello.noddy.querydsl.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트에서 실행되어야 하는 SQL 문 수. StatementCounter.reset() 이후부터 센다.
+ * StatementBudgetExtension 과 같이 쓴다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+  int value();
+}
@@ -0,0 +1,44 @@
+package hello.noddy.querydsl.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * 테스트마다 StatementCounter 로 SQL 문 수를 센다.
+ * 테스트 메서드에 @StatementBudget 이 있으면 센 수가 정확히 같은지 확인한다.
+ *
+ * <pre>
+ * &#64;ExtendWith(StatementBudgetExtension.class)
+ * class SomeTest {
+ *   &#64;Test
+ *   &#64;StatementBudget(2)
+ *   void test() {
+ *     // given ...
+ *     StatementCounter.reset();
+ *     // when ...
+ *   }
+ * }
+ * </pre>
+ */
+public class StatementBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+  @Override
+  public void beforeEach(ExtensionContext context) {
+    StatementCounter.start();
+  }
+
+  @Override
+  public void afterEach(ExtensionContext context) {
+    int count = StatementCounter.count();
+    StatementCounter.stop();
+
+    context.getTestMethod()
+        .map(method -> method.getAnnotation(StatementBudget.class))
+        .ifPresent(budget -> assertThat(count)
+            .as("SQL statements executed by %s", context.getDisplayName())
+            .isEqualTo(budget.value()));
+  }
+}
@@ -0,0 +1,3 @@
+-- ReadWriteRoutingDataSourceTest 의 replica. 실제로는 primary 에서 복제된다.
+create table if not exists team (id bigint not null, name varchar(255), primary key (id));
+create table if not exists member (member_id bigint not null, age integer not null, username varchar(255), team_id bigint, primary key (member_id));